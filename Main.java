@@ -1,5 +1,10 @@
+import java.util.Arrays;
 import javax.swing.*;
 import src.model.GameModel;
+import src.model.record.GameDatabase;
+import src.model.record.GameRecordReader;
+import src.tournament.Tournament;
+import src.tuning.EvalTuner;
 
 /**
  * The Main class serves as the entry point for the Jungle King Game.
@@ -8,11 +13,32 @@ import src.model.GameModel;
 public class Main extends JFrame {
 
     /**
-     * The main method starts the game by calling GameModel.Start().
+     * The main method starts the game by calling GameModel.Start(), runs a headless
+     * engine tournament when the first argument is "tournament", prints recorded games
+     * as text when it is "export", opens a game database when it is "database", or tunes the
+     * evaluation weights on recorded games when it is "tune".
      *
-     * @param args Command-line arguments (not used in this application).
+     * @param args Command-line arguments; "tournament" followed by the Tournament options,
+     *             "export" followed by game record files, "database" followed by one, or "tune"
+     *             followed by the EvalTuner options and game record files.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("export")) {
+            GameRecordReader.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("database")) {
+            GameDatabase.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            EvalTuner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         GameModel.Start();
     }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package src.bench;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.engine.Evaluator;
+import src.model.pieces.Piece;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * Benchmarks class measuring the throughput of the rules engine from the command line.
+ * Every benchmark is run for a number of warmup iterations, then timed over measured iterations,
+ * and reported in nodes (or calls) per second. Before timing anything the perft counts are checked
+ * against known values, so a rules regression fails the run instead of producing a faster number.
+ *
+ * Usage: java src.bench.Benchmarks [depth] [warmup iterations] [measured iterations]
+ */
+public final class Benchmarks {
+    /** Perft counts of the standard layout from depth 0, the same for either side moving first. */
+    private static final long[] STANDARD_PERFT = { 1L, 24L, 576L, 12240L, 260100L, 5111725L, 100459991L };
+
+    /** Seeds of the shuffled layouts, as built by Rules.shuffledLayout(new Random(seed)). */
+    private static final long[] SHUFFLE_SEEDS = { 1L, 2L, 3L };
+
+    /** Perft counts of the shuffled layouts from depth 0, blue to move. */
+    private static final long[][] SHUFFLED_PERFT = {
+        { 1L, 12L, 175L, 2119L, 30956L, 385187L },
+        { 1L, 9L, 78L, 768L, 7899L, 85200L },
+        { 1L, 6L, 88L, 681L, 9343L, 84421L }
+    };
+
+    private static volatile long sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Checks the perft counts and runs every benchmark.
+     * @param args Optional perft depth, warmup iteration count and measured iteration count.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        if (!checkPerft()) {
+            System.exit(1);
+        }
+
+        Perft perft = new Perft(depth);
+        Position standard = Rules.standardLayout(Board.BLUE);
+        run("perft standard depth " + depth, warmup, iterations, () -> perft.count(standard, depth));
+
+        Position[] shuffled = new Position[SHUFFLE_SEEDS.length];
+        for (int i = 0; i < shuffled.length; i++) {
+            shuffled[i] = Rules.shuffledLayout(new Random(SHUFFLE_SEEDS[i]));
+        }
+        run("perft shuffled depth " + depth, warmup, iterations, () -> {
+            long nodes = 0;
+            for (Position position : shuffled) {
+                nodes += perft.count(position, depth);
+            }
+            return nodes;
+        });
+
+        Piece[] pieces = new Piece[2 * Board.TYPES];
+        for (int code = 0; code < pieces.length; code++) {
+            pieces[code] = Board.newPiece(code);
+        }
+        run("Piece.canCapture", warmup, iterations, () -> canCapture(pieces, 20000));
+        run("Board.CAPTURES lookup", warmup, iterations, () -> capturesLookup(20000));
+        run("Piece.canMoveToTile", warmup, iterations, () -> canMoveToTile(pieces, 100));
+        run("Position.targets", warmup, iterations, () -> targets(standard, 100000));
+
+        Position middleGame = randomLine(Rules.standardLayout(Board.BLUE), new Random(42), 20);
+        run("makeMove/unmakeMove", warmup, iterations, () -> makeUnmake(middleGame, 500000));
+        run("make/evaluate/unmake", warmup, iterations, () -> makeEvaluateUnmake(middleGame, 500000));
+    }
+
+    /**
+     * Compares the perft counts of the standard and shuffled layouts with the known values.
+     * @return true if every count matches, false otherwise.
+     */
+    private static boolean checkPerft() {
+        Perft perft = new Perft(STANDARD_PERFT.length);
+        boolean ok = true;
+        for (int side = Board.BLUE; side <= Board.GREEN; side++) {
+            Position position = Rules.standardLayout(side);
+            for (int depth = 0; depth < STANDARD_PERFT.length; depth++) {
+                ok &= checkCount("standard side " + side, depth, perft.count(position, depth), STANDARD_PERFT[depth]);
+            }
+        }
+        for (int i = 0; i < SHUFFLE_SEEDS.length; i++) {
+            Position position = Rules.shuffledLayout(new Random(SHUFFLE_SEEDS[i]));
+            for (int depth = 0; depth < SHUFFLED_PERFT[i].length; depth++) {
+                ok &= checkCount("shuffled seed " + SHUFFLE_SEEDS[i], depth, perft.count(position, depth), SHUFFLED_PERFT[i][depth]);
+            }
+        }
+        System.out.println(ok ? "perft: all counts match" : "perft: MISMATCH, rules changed");
+        return ok;
+    }
+
+    private static boolean checkCount(String layout, int depth, long actual, long expected) {
+        if (actual == expected) return true;
+        System.out.println("perft " + layout + " depth " + depth + ": expected " + expected + ", got " + actual);
+        return false;
+    }
+
+    /**
+     * Runs a benchmark and prints its throughput.
+     * @param name The name of the benchmark.
+     * @param warmup The number of untimed iterations.
+     * @param iterations The number of timed iterations.
+     * @param task The work of one iteration, returning the number of nodes or calls it made.
+     */
+    private static void run(String name, int warmup, int iterations, LongSupplier task) {
+        for (int i = 0; i < warmup; i++) {
+            sink += task.getAsLong();
+        }
+
+        long nodes = 0;
+        long best = Long.MAX_VALUE;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long iterationStart = System.nanoTime();
+            nodes += task.getAsLong();
+            best = Math.min(best, System.nanoTime() - iterationStart);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long perIteration = nodes / iterations;
+        System.out.printf("%-28s %,16d nodes/s  (mean %,.2f ms, best %,.2f ms, %,d nodes/iteration)%n",
+            name, (long) (nodes * 1e9 / elapsed), elapsed / 1e6 / iterations, best / 1e6, perIteration);
+    }
+
+    private static long canCapture(Piece[] pieces, int rounds) {
+        long calls = 0;
+        int captures = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Piece attacker : pieces) {
+                for (Piece defender : pieces) {
+                    if (attacker.canCapture(defender)) captures++;
+                }
+            }
+            calls += pieces.length * pieces.length;
+        }
+        sink += captures;
+        return calls;
+    }
+
+    private static long capturesLookup(int rounds) {
+        long calls = 0;
+        int captures = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int attacker = 0; attacker < 2 * Board.TYPES; attacker++) {
+                int mask = Board.CAPTURES[Board.type(attacker)];
+                for (int defender = 0; defender < 2 * Board.TYPES; defender++) {
+                    if ((mask & (1 << Board.type(defender))) != 0) captures++;
+                }
+            }
+            calls += 4 * Board.TYPES * Board.TYPES;
+        }
+        sink += captures;
+        return calls;
+    }
+
+    private static long canMoveToTile(Piece[] pieces, int rounds) {
+        long calls = 0;
+        int allowed = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Piece piece : pieces) {
+                for (int from = 0; from < Board.SQUARES; from++) {
+                    for (int to = 0; to < Board.SQUARES; to++) {
+                        boolean isLake = (Board.LAKE & (1L << to)) != 0;
+                        if (piece.canMoveToTile(Board.row(from), Board.col(from), Board.row(to), Board.col(to), isLake)) {
+                            allowed++;
+                        }
+                    }
+                }
+            }
+            calls += (long) pieces.length * Board.SQUARES * Board.SQUARES;
+        }
+        sink += allowed;
+        return calls;
+    }
+
+    private static long targets(Position position, int rounds) {
+        long calls = 0;
+        long targets = 0;
+        for (int round = 0; round < rounds; round++) {
+            long pieces = position.side(Board.BLUE) | position.side(Board.GREEN);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                targets ^= position.targets(sq);
+                calls++;
+            }
+        }
+        sink += targets;
+        return calls;
+    }
+
+    private static long makeUnmake(Position position, int rounds) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < count; i++) {
+                position.makeMove(moves[i]);
+                position.unmakeMove(moves[i]);
+            }
+        }
+        sink += position.side(Board.BLUE);
+        return (long) rounds * count;
+    }
+
+    private static long makeEvaluateUnmake(Position position, int rounds) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        int scores = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < count; i++) {
+                position.makeMove(moves[i]);
+                scores += Evaluator.evaluate(position);
+                position.unmakeMove(moves[i]);
+            }
+        }
+        sink += scores;
+        return (long) rounds * count;
+    }
+
+    /**
+     * Plays random legal moves from a position, stopping early if a move would end the game.
+     * @param position The position to play from, modified in place.
+     * @param random The source of randomness.
+     * @param plies The number of moves to play.
+     * @return The same position after the moves.
+     */
+    static Position randomLine(Position position, Random random, int plies) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < plies; ply++) {
+            int count = MoveGenerator.generate(position, moves);
+            if (count == 0) break;
+            int move = moves[random.nextInt(count)];
+            if (Rules.isWinningMove(Move.to(move))) break;
+            position.makeMove(move);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,51 @@
+package src.bench;
+
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * Perft class counting the move sequences of a given length from a position.
+ * A move that enters the opponent's den ends the game, so it is counted as a leaf and not expanded.
+ * The counts only depend on the rules, which makes them a regression check for the move generator.
+ */
+public final class Perft {
+    private final int[][] moves;
+
+    /**
+     * Constructor to create a perft counter with move buffers for every ply up to a depth.
+     * @param maxDepth The deepest count this instance will be asked for.
+     */
+    public Perft(int maxDepth) {
+        moves = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+    }
+
+    /**
+     * Counts the leaf nodes of the game tree from a position to a depth.
+     * The position is left unchanged.
+     * @param position The position to count from.
+     * @param depth The number of plies to look ahead.
+     * @return The number of leaf nodes.
+     */
+    public long count(Position position, int depth) {
+        if (depth == 0) return 1;
+
+        int[] buffer = moves[depth];
+        int count = MoveGenerator.generate(position, buffer);
+        if (depth == 1) return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            if (Rules.isWinningMove(Move.to(move))) {
+                nodes++;
+                continue;
+            }
+            position.makeMove(move);
+            nodes += count(position, depth - 1);
+            position.unmakeMove(move);
+        }
+        return nodes;
+    }
+}
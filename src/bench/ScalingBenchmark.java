@@ -0,0 +1,86 @@
+package src.bench;
+
+import java.util.Random;
+
+import src.model.board.Board;
+import src.model.board.Position;
+import src.model.engine.ParallelSearch;
+import src.model.engine.SearchResult;
+import src.model.engine.TranspositionTable;
+import src.model.rules.Rules;
+
+/**
+ * ScalingBenchmark class measuring how the parallel search scales with the number of threads.
+ * A fixed set of positions is searched to a fixed depth once per thread count, each time with a fresh
+ * transposition table. For every thread count it prints the nodes per second and the time to reach the
+ * depth, both also as a speedup over the first thread count. Searched nodes grow with the thread count,
+ * so the time-to-depth speedup is the one that tells how much stronger the engine plays.
+ *
+ * Usage: java src.bench.ScalingBenchmark [depth] [table megabytes] [thread counts, e.g. 1,2,4,8,16]
+ */
+public final class ScalingBenchmark {
+    /** Time budget large enough that only the depth limit ends a search. */
+    private static final long NO_TIME_LIMIT = 3_600_000L;
+
+    /** Seeds of the random lines played from the standard layout to get middle game positions. */
+    private static final long[] LINE_SEEDS = { 1L, 2L, 3L, 4L, 5L };
+
+    private ScalingBenchmark() {
+    }
+
+    /**
+     * Runs the parallel search over the test positions for every thread count.
+     * @param args Optional depth, table size in megabytes and comma-separated thread counts.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        String[] counts = (args.length > 2 ? args[2] : "1,2,4,8,16").split(",");
+
+        Position[] positions = new Position[LINE_SEEDS.length + 1];
+        positions[0] = Rules.standardLayout(Board.BLUE);
+        for (int i = 0; i < LINE_SEEDS.length; i++) {
+            positions[i + 1] = Benchmarks.randomLine(Rules.standardLayout(Board.BLUE), new Random(LINE_SEEDS[i]), 16);
+        }
+
+        System.out.printf("depth %d, %d positions, %d MB table, %d cores%n",
+            depth, positions.length, megabytes, Runtime.getRuntime().availableProcessors());
+
+        // One untimed pass so the first thread count is not measured on cold code
+        searchAll(new ParallelSearch(1, TranspositionTable.ofMegabytes(megabytes)), positions, depth);
+
+        double baseRate = 0;
+        double baseTime = 0;
+        for (String count : counts) {
+            int threads = Integer.parseInt(count.trim());
+            ParallelSearch search = new ParallelSearch(threads, TranspositionTable.ofMegabytes(megabytes));
+
+            long start = System.nanoTime();
+            long nodes = searchAll(search, positions, depth);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rate = nodes / seconds;
+            if (baseRate == 0) {
+                baseRate = rate;
+                baseTime = seconds;
+            }
+            System.out.printf("%2d threads %,14d nodes %,14d nodes/s (x%.2f)  time to depth %8.3f s (x%.2f)%n",
+                threads, nodes, (long) rate, rate / baseRate, seconds, baseTime / seconds);
+        }
+    }
+
+    /**
+     * Searches every position to a depth.
+     * @param search The search to use.
+     * @param positions The positions to search.
+     * @param depth The depth to reach.
+     * @return The number of nodes visited by all threads.
+     */
+    private static long searchAll(ParallelSearch search, Position[] positions, int depth) {
+        long nodes = 0;
+        for (Position position : positions) {
+            SearchResult result = search.search(position, NO_TIME_LIMIT, depth);
+            nodes += result.nodes();
+        }
+        return nodes;
+    }
+}
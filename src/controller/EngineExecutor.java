@@ -0,0 +1,105 @@
+package src.controller;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.SwingUtilities;
+
+import src.model.board.Position;
+import src.model.board.PositionSnapshot;
+import src.model.engine.Player;
+import src.model.engine.SearchResult;
+
+/**
+ * EngineExecutor class running the computer players' searches on a background thread, so the Swing event
+ * thread keeps handling input and painting while an engine thinks.
+ * Only one search is wanted at a time. Every search gets a stop token of its own, which the player checks while
+ * it thinks; starting a search or cancelling sets the token of the one running. A token is never cleared, so a
+ * search cancelled before the engine thread got to it does not run at all, and progress and moves of a search
+ * whose token is set are dropped instead of being handed to the event thread.
+ * Between searches a player may ponder on the same thread: it searches the position it expects next until it
+ * is cancelled, which happens as soon as the next real search is started.
+ */
+public final class EngineExecutor {
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(task -> {
+        Thread engine = new Thread(task, "engine");
+        engine.setDaemon(true);
+        return engine;
+    });
+
+    /** Stop token of the current search or ponder, null if none; only touched on the event thread. */
+    private AtomicBoolean current;
+
+    /**
+     * Starts a search, stopping the one running. Must be called on the event thread.
+     * @param player The player choosing the move.
+     * @param snapshot The position to search; the player gets its own copy.
+     * @param progress Called on the event thread after every completed iteration, if the player reports any.
+     * @param done Called on the event thread with the chosen move, unless the search was cancelled first.
+     */
+    public void start(Player player, PositionSnapshot snapshot, Consumer<SearchResult> progress, IntConsumer done) {
+        cancel();
+        AtomicBoolean stop = new AtomicBoolean();
+        current = stop;
+        thread.execute(() -> {
+            if (stop.get()) return;
+            player.setSearchListener(result -> SwingUtilities.invokeLater(() -> {
+                if (!stop.get()) progress.accept(result);
+            }));
+            int move;
+            try {
+                move = player.chooseMove(snapshot.toPosition(), stop);
+            } finally {
+                player.setSearchListener(null);
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (stop.get()) return;
+                current = null;
+                done.accept(move);
+            });
+        });
+    }
+
+    /**
+     * Lets a player search the position it expects next until another search is started or cancel is called.
+     * Must be called on the event thread.
+     * @param player The player pondering.
+     * @param position The expected position, owned by the executor from now on.
+     */
+    public void ponder(Player player, Position position) {
+        cancel();
+        AtomicBoolean stop = new AtomicBoolean();
+        current = stop;
+        thread.execute(() -> {
+            if (!stop.get()) player.ponder(position, stop);
+        });
+    }
+
+    /**
+     * Stops the running search and drops its result. Must be called on the event thread.
+     */
+    public void cancel() {
+        if (current != null) {
+            current.set(true);
+            current = null;
+        }
+    }
+
+    /**
+     * Checks if a search or a ponder was started and has not delivered its move or been cancelled yet.
+     * @return true if an engine is thinking, false otherwise.
+     */
+    public boolean isThinking() {
+        return current != null;
+    }
+
+    /**
+     * Cancels the running search and ends the background thread once it has returned.
+     */
+    public void shutdown() {
+        cancel();
+        thread.shutdown();
+    }
+}
@@ -1,34 +1,55 @@
 package src.controller;
 
-import javax.swing.BorderFactory;
 import javax.swing.JFrame;
-import javax.swing.JOptionPane;
 
-import java.awt.Color;
+import java.util.Random;
+
 import src.model.GameModel;
-import src.model.pieces.Lion;
-import src.model.pieces.Piece;
-import src.model.pieces.Rat;
-import src.model.pieces.Tiger;
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.board.PositionSnapshot;
+import src.model.engine.ParallelSearch;
+import src.model.engine.Player;
+import src.model.rules.GameState;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
 import src.view.GameView;
 
 
 /**
  * GameController.java
- * This class handles the game logic and user interactions for the Jungle Game.
- * It manages the movement of pieces, validates moves, and updates the game state.
- * It also handles the initial piece selection and determines the first turn.
+ * This class handles the user interactions for the Jungle Game.
+ * It forwards tile clicks and key presses to its GameState, which owns the rules and the board,
+ * and tells the view what to redraw after every change.
+ * Computer players think on the background thread of an EngineExecutor, so the window stays responsive; their
+ * progress is shown as it comes and their move is made on the event thread once the search returns.
  */
 public class GameController extends JFrame{
-    
-    public Piece selectedPiece;
+
+    /** Time budget of every computer move in milliseconds. */
+    public static final long THINK_MILLIS = 1000;
+
+    /** Number of search threads of every computer player: the jungle.threads system property, or every core. */
+    public static final int SEARCH_THREADS =
+        Integer.getInteger("jungle.threads", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Size of the transposition table of every alpha-beta player in megabytes: the jungle.tableMegabytes system
+     * property, or ParallelSearch.DEFAULT_TABLE_MEGABYTES. It stays the same whatever SEARCH_THREADS is.
+     */
+    public static final int TABLE_MEGABYTES =
+        Integer.getInteger("jungle.tableMegabytes", ParallelSearch.DEFAULT_TABLE_MEGABYTES);
+
     public int selectedRow = -1;
     public int selectedCol = -1;
-    public Piece bluePieceSelected;
-    public Piece redPieceSelected;
-    
+
+    private final GameState state;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final Player[] players = new Player[2];
+    private final EngineExecutor engine = new EngineExecutor();
     private GameView gameView;
-    
+
     /**
      * Sets the GameView instance for this controller.
      * This method is called to initialize the view component of the game.
@@ -36,109 +57,222 @@ public class GameController extends JFrame{
      */
     public void setGameView(GameView view) {
         this.gameView = view;
-        
-        bluePieceSelected = null;
-        redPieceSelected = null;
-        selectedPiece = null;
+
         selectedRow = -1;
         selectedCol = -1;
     }
-    
+
     /**
      * Constructor for the GameController class.
-     * Initializes the focus traversal keys and sets up the game controller.
+     * Initializes the focus traversal keys and creates a new game state.
      */
     public GameController() {
         setFocusTraversalKeysEnabled(false);
+        state = new GameState(new Random());
+    }
+
+    /**
+     * Returns the state of the game handled by this controller.
+     * @return The game state.
+     */
+    public GameState getGameState() {
+        return state;
+    }
+
+    /**
+     * Sets who plays a side. A null player means the side is played by a human clicking tiles.
+     * If it is that side's turn, the new player moves right away.
+     * @param side BLUE or GREEN.
+     * @param player The computer player, or null for a human.
+     */
+    public void setPlayer(int side, Player player) {
+        if (players[side] != null) {
+            stopEngine();
+        }
+        players[side] = player;
+        requestEngineMove();
+    }
+
+    /**
+     * Checks if the side to move is played by the computer.
+     * @return true if a computer player moves next, false otherwise.
+     */
+    private boolean isEngineTurn() {
+        return players[state.snapshot().sideToMove()] != null;
+    }
+
+    /**
+     * Lets the computer player of the side to move start thinking, if that side has one.
+     * The search runs in the background on the position published now; its move is only made if the game has
+     * not changed in the meantime. If a human is to move against the computer, the computer ponders instead.
+     */
+    private void requestEngineMove() {
+        if (!state.isGameStarted() || state.isGameEnded()) return;
+        if (!isEngineTurn()) {
+            requestPonder();
+            return;
+        }
+
+        PositionSnapshot snapshot = state.snapshot();
+        Player player = players[snapshot.sideToMove()];
+        engine.start(player, snapshot, gameView::showEngineProgress, move -> {
+            gameView.showEngineProgress(null);
+            if (state.snapshot() == snapshot && players[snapshot.sideToMove()] == player) {
+                movePiece(move);
+            }
+        });
+    }
+
+    /**
+     * Lets the computer player search the position after the reply it expects from the human to move.
+     * The ponder is cancelled by the human's move, and the computer then searches the real position with the
+     * transposition table the ponder filled.
+     */
+    private void requestPonder() {
+        PositionSnapshot snapshot = state.snapshot();
+        Player player = players[snapshot.sideToMove() ^ 1];
+        if (player == null) return;
+
+        int reply = player.predictedReply();
+        if (reply == Move.NONE || state.findMove(Move.from(reply), Move.to(reply)) != reply
+                || Rules.isWinningMove(Move.to(reply))) return;
+        Position expected = snapshot.toPosition();
+        expected.makeMove(reply);
+        engine.ponder(player, expected);
+    }
+
+    /**
+     * Stops the computer player thinking, if any, and drops its move.
+     * Called before the game is restarted and whenever the game changes under a running search.
+     */
+    public void stopEngine() {
+        if (engine.isThinking()) {
+            engine.cancel();
+            gameView.showEngineProgress(null);
+        }
+    }
+
+    /**
+     * Stops the computer players for good, before the window of the game is closed.
+     */
+    public void shutdownEngine() {
+        stopEngine();
+        engine.shutdown();
     }
-    
+
     /**
      * Moves a piece from one tile to another.
-     * This method updates the game model and the view to reflect the move.
-     * It also checks if the move ends the game by entering the opponent's den.
+     * This method updates the game state and the view to reflect the move.
+     * It also reports the winner if the move ends the game by entering the opponent's den.
      * @param fromRow The row of the piece being moved.
      * @param fromCol The column of the piece being moved.
      * @param toRow The row of the destination tile.
      * @param toCol The column of the destination tile.
      */
     public void movePiece(int fromRow, int fromCol, int toRow, int toCol) {
-        Piece piece = GameModel.pieces[fromRow][fromCol];
-    
-        // Update the isInTrap flag for the piece based on the destination tile
-        if (isTrap(toRow, toCol) && !isOwnTrap(toRow, toCol, piece.isBlueTeam())) {
-            piece.setInTrap(true);
-        } else {
-            piece.setInTrap(false);
-        }
-    
-        // Move the piece
-        GameModel.pieces[toRow][toCol] = piece;
-        GameModel.pieces[fromRow][fromCol] = null;
-    
+        movePiece(state.findMove(Board.square(fromRow, fromCol), Board.square(toRow, toCol)));
+    }
+
+    /**
+     * Makes a packed move, as produced by MoveGenerator, and updates the view.
+     * Illegal moves are ignored.
+     * @param move The packed move.
+     */
+    public void movePiece(int move) {
+        if (!state.move(move)) return;
+
         // Update the board display
         gameView.updateBoardDisplay();
-    
+
         // Update the turn label
-        String currentTurn = GameModel.isBlueTeamTurn ? "Green" : "Blue";
-        GameModel.turnLabel.setText(currentTurn + "'s Turn");
-    
-        // Check if the move ends the game by entering the opponent's den
-        if (isDen(toRow, toCol)) {
-            GameModel.setGameEnded(true);
-            GameModel.turnLabel.setText((GameModel.isBlueTeamTurn() ? "Blue" : "Green") + " team wins!");
-            JOptionPane.showMessageDialog(this, 
-                (GameModel.isBlueTeamTurn() ? "Blue" : "Green") + " team wins!");
+        gameView.setTurnText((state.isBlueTeamTurn() ? "Blue" : "Green") + "'s Turn");
+
+        // Check if the move ended the game by entering the opponent's den
+        if (state.isGameEnded()) {
+            stopEngine();
+            String winner = (state.winner() == Board.BLUE ? "Blue" : "Green") + " team wins!";
+            gameView.setTurnText(winner);
+            gameView.showMessage(winner);
+        }
+        requestEngineMove();
+    }
+
+    /**
+     * Takes back the last move. If the computer plays the side that is then to move, its move is taken back
+     * too, so the human player is to move again.
+     */
+    public void undo() {
+        if (!state.canUndo()) return;
+        stopEngine();
+        state.undo();
+        while (isEngineTurn() && !isEngineOnly() && state.canUndo()) {
+            state.undo();
+        }
+        showHistoryChange();
+        requestEngineMove();
+    }
+
+    /**
+     * Makes the last move taken back again, together with the computer's reply if it had been taken back too.
+     */
+    public void redo() {
+        if (!state.canRedo()) return;
+        stopEngine();
+        state.redo();
+        while (isEngineTurn() && !isEngineOnly() && !state.isGameEnded() && state.canRedo()) {
+            state.redo();
+        }
+        showHistoryChange();
+        requestEngineMove();
+    }
+
+    /**
+     * Checks if the computer plays both sides.
+     * @return true if neither side is played by a human, false otherwise.
+     */
+    private boolean isEngineOnly() {
+        return players[Board.BLUE] != null && players[Board.GREEN] != null;
+    }
+
+    /**
+     * Shows the board and the turn after a move was taken back or made again.
+     */
+    private void showHistoryChange() {
+        gameView.clearSelection();
+        gameView.updateBoardDisplay();
+        if (state.isGameEnded()) {
+            gameView.setTurnText((state.winner() == Board.BLUE ? "Blue" : "Green") + " team wins!");
+        } else {
+            gameView.setTurnText((state.isBlueTeamTurn() ? "Blue" : "Green") + "'s Turn");
         }
     }
 
     /**
      * Highlights valid moves for the selected piece.
-     * This method updates the borders of the tiles to indicate valid moves.
      * @param row The row of the selected piece.
      * @param col The column of the selected piece.
      */
     public void highlightValidMoves(int row, int col) {
-        for (int r = 0; r < GameModel.ROWS; r++) {
-            for (int c = 0; c < GameModel.COLS; c++) {
-                if (isValidMove(row, col, r, c)) {
-                    
-                    GameModel.grid[r][c].setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(Color.WHITE, 1),
-                        BorderFactory.createLineBorder(Color.YELLOW, 2)
-                    ));
-                }
-            }
-        }
+        int count = state.legalMoves(Board.square(row, col), moves);
+        gameView.highlightValidMoves(MoveGenerator.targets(moves, count));
     }
 
     /**
-     * Determines the first turn based on the selected pieces.
-     * This method compares the ranks of the selected pieces and displays a message indicating which team goes first.
+     * Announces which team goes first once both teams have selected their pieces.
      */
     private void determineFirstTurn() {
-        
-        String blueAnimal = bluePieceSelected.getClass().getSimpleName();
-        String redAnimal = redPieceSelected.getClass().getSimpleName();
-        
-        boolean blueGoesFirst = bluePieceSelected.getRank() > redPieceSelected.getRank();
-        
-        JOptionPane.showMessageDialog(this, 
+
+        String blueAnimal = Board.NAMES[state.selectedType(Board.BLUE)];
+        String redAnimal = Board.NAMES[state.selectedType(Board.GREEN)];
+
+        gameView.showMessage(
             "Blue selected: " + blueAnimal + "\n" +
             "Green selected: " + redAnimal + "\n\n" +
-            (blueGoesFirst ? "Blue" : "Green") + " team goes first!");
-        
-        GameModel.startGame(bluePieceSelected, redPieceSelected, blueGoesFirst);
-        
-        
-        GameModel.pieces = new Piece[GameModel.ROWS][GameModel.COLS];
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                GameModel.pieces[row][col] = GameModel.originalPieces[row][col];
-            }
-        }
-        
-        GameModel.turnLabel.setText((GameModel.isBlueTeamTurn() ? "Blue" : "Green") + "'s Turn");
+            (state.isBlueTeamTurn() ? "Blue" : "Green") + " team goes first!");
+
+        gameView.setTurnText((state.isBlueTeamTurn() ? "Blue" : "Green") + "'s Turn");
         gameView.updateBoardDisplay();
+        requestEngineMove();
     }
 
     /**
@@ -148,77 +282,13 @@ public class GameController extends JFrame{
      * @param col The column of the selected piece.
      */
     private void handleInitialPieceSelection(int row, int col) {
-        if (GameModel.pieces[row][col] == null) return;
-        
-        if (!GameModel.isGameStarted()) {
-            if (GameModel.pieces[row][col].isBlueTeam() && bluePieceSelected == null) {
-                bluePieceSelected = GameModel.pieces[row][col];
-                GameModel.grid[row][col].setIcon(gameView.overlayIcons(gameView.getTileIcon(row, col), GameModel.hiddenIcon));
-            } else if (!GameModel.pieces[row][col].isBlueTeam() && redPieceSelected == null) {
-                redPieceSelected = GameModel.pieces[row][col];
-                GameModel.grid[row][col].setIcon(gameView.overlayIcons(gameView.getTileIcon(row, col), GameModel.hiddenIcon));
-            }
-            
-            if (bluePieceSelected != null && redPieceSelected != null) {
-                determineFirstTurn();
-            }
+        if (state.selectInitialPiece(Board.square(row, col)) && state.isGameStarted()) {
+            determineFirstTurn();
         }
     }
 
     /**
-     * Checks if the move is a valid lake jump move.
-     * This method verifies if the piece can jump over the lake based on its type and position.
-     * @param fromRow The row of the piece being moved.
-     * @param fromCol The column of the piece being moved.
-     * @param toRow The row of the destination tile.
-     * @param toCol The column of the destination tile.
-     * @return true if the move is a valid lake jump move, false otherwise.
-     */
-    private boolean isLakeJumpMove(int fromRow, int fromCol, int toRow, int toCol) {
-        
-        if (fromRow != toRow && fromCol != toCol) return false;
-        
-        
-        if (GameModel.pieces[toRow][toCol] != null) {
-            if (GameModel.pieces[toRow][toCol].isBlueTeam() == GameModel.pieces[fromRow][fromCol].isBlueTeam()) {
-                return false; 
-            }
-            
-            if (!GameModel.pieces[fromRow][fromCol].canCapture(GameModel.pieces[toRow][toCol])) {
-                return false;
-            }
-        }
-        
-        
-        if (fromRow == toRow) { 
-            
-            if ((fromCol == 2 && toCol == 6) || (fromCol == 6 && toCol == 2)) {
-                
-                for (int col = 3; col <= 5; col++) {
-                    if (GameModel.pieces[fromRow][col] instanceof Rat) return false;
-                }
-                return isLake(fromRow, 4); 
-            }
-        } else { 
-            
-            if (((fromRow == 0 && toRow == 3) || (fromRow == 3 && toRow == 0) ||
-                 (fromRow == 3 && toRow == 6) || (fromRow == 6 && toRow == 3)) &&
-                (fromCol >= 3 && fromCol <= 5)) { 
-                
-                int minRow = Math.min(fromRow, toRow);
-                int maxRow = Math.max(fromRow, toRow);
-                for (int row = minRow + 1; row < maxRow; row++) {
-                    if (GameModel.pieces[row][fromCol] instanceof Rat) return false;
-                }
-                return isLake((fromRow + toRow)/2, fromCol); 
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Checks if the move is valid based on the piece type and destination tile.
-     * This method verifies if the move is legal according to the game rules.
+     * Checks if the move is valid for the side to move.
      * @param fromRow The row of the piece being moved.
      * @param fromCol The column of the piece being moved.
      * @param toRow The row of the destination tile.
@@ -226,45 +296,7 @@ public class GameController extends JFrame{
      * @return true if the move is valid, false otherwise.
      */
     private boolean isValidMove(int fromRow, int fromCol, int toRow, int toCol) {
-        Piece piece = GameModel.pieces[fromRow][fromCol];
-        
-        
-        if (isOwnDen(toRow, toCol, piece.isBlueTeam())) {
-            return false;
-        }
-
-        if (piece instanceof Lion || piece instanceof Tiger) {
-            if (isLakeJumpMove(fromRow, fromCol, toRow, toCol)) {
-                return true;
-            }
-            if (isLake(toRow, toCol)) {
-                return false; 
-            }
-        }
-
-        if (!isAdjacent(fromRow, fromCol, toRow, toCol)) {
-            return false; 
-        }
-
-        if (GameModel.pieces[toRow][toCol] != null) {
-            Piece targetPiece = GameModel.pieces[toRow][toCol];
-
-            if (targetPiece.isBlueTeam() == piece.isBlueTeam()) {
-                return false;
-            }
-            
-            if (isTrap(toRow, toCol) && !isOwnTrap(toRow, toCol, piece.isBlueTeam())) {
-                return true;
-            }
-
-            if (!piece.canCapture(targetPiece)) {
-                return false;
-            }
-
-        }
-        
-        boolean isLakeMove = isLake(toRow, toCol);
-        return piece.canMoveToTile(fromRow, fromCol, toRow, toCol, isLakeMove);
+        return state.findMove(Board.square(fromRow, fromCol), Board.square(toRow, toCol)) != Move.NONE;
     }
 
     /**
@@ -273,29 +305,27 @@ public class GameController extends JFrame{
      * @param row The row of the clicked tile.
      * @param col The column of the clicked tile.
      */
-    private void handleTileClick(int row, int col) {
-        if (!GameModel.isGameStarted()) {
+    public void handleTileClick(int row, int col) {
+        if (!state.isGameStarted()) {
             handleInitialPieceSelection(row, col);
             return;
         }
+        if (state.isGameEnded() || isEngineTurn()) return;
 
-        
-        if (GameModel.pieces[row][col] != null && 
-            GameModel.pieces[row][col].isBlueTeam() == GameModel.isBlueTeamTurn()) {
+        int code = state.snapshot().pieceAt(Board.square(row, col));
+        if (code != Board.EMPTY && (Board.side(code) == Board.BLUE) == state.isBlueTeamTurn()) {
             gameView.clearSelection();
-            selectedPiece = GameModel.pieces[row][col];
             selectedRow = row;
             selectedCol = col;
             gameView.highlightSelectedPiece(row, col);
             highlightValidMoves(row, col);
-            requestFocus(); 
+            requestFocus();
             return;
         }
 
-        
-        if (selectedPiece != null && isValidMove(selectedRow, selectedCol, row, col)) {
+
+        if (selectedRow >= 0 && isValidMove(selectedRow, selectedCol, row, col)) {
             movePiece(selectedRow, selectedCol, row, col);
-            GameModel.toggleTurn();
             gameView.clearSelection();
         }
     }
@@ -307,8 +337,7 @@ public class GameController extends JFrame{
      * @return true if the tile is a lake, false otherwise.
      */
     public boolean isLake(int row, int col) {
-        return ((row >= 1 && row <= 2 || row >= 4 && row <= 5) && 
-                (col >= 3 && col <= 5));
+        return (Board.LAKE & Board.bit(row, col)) != 0;
     }
 
     /**
@@ -318,41 +347,7 @@ public class GameController extends JFrame{
      * @return true if the tile is a trap, false otherwise.
      */
     public boolean isTrap(int row, int col) {
-        
-        if (row == 2 && (col == 0 || col == 8)) return true;
-        if (row == 3 && (col == 1 || col == 7)) return true;
-        if (row == 4 && (col == 0 || col == 8)) return true;
-        return false;
-    }
-
-    /**
-     * Checks if the tile is an opponent's trap.
-     * @param row The row of the tile.
-     * @param col The column of the tile.
-     * @param isBlueTeam Indicates if the current team is blue.
-     * @return true if the tile is an opponent's trap, false otherwise.
-     */
-    private boolean isOwnTrap(int row, int col, boolean isBlueTeam) {
-        // Blue team's traps are on the left side
-        if (isBlueTeam) {
-            return (row == 2 && col == 0) || (row == 3 && col == 1) || (row == 4 && col == 0);
-        }
-        // Green team's traps are on the right side
-        return (row == 2 && col == 8) || (row == 3 && col == 7) || (row == 4 && col == 8);
-    }
-
-    /**
-     * Checks if two tiles are adjacent.
-     * @param fromRow The row of the first tile.
-     * @param fromCol The column of the first tile.
-     * @param toRow The row of the second tile.
-     * @param toCol The column of the second tile.
-     * @return true if the tiles are adjacent, false otherwise.
-     */
-    private boolean isAdjacent(int fromRow, int fromCol, int toRow, int toCol) {
-        int rowDiff = Math.abs(fromRow - toRow);
-        int colDiff = Math.abs(fromCol - toCol);
-        return (rowDiff == 1 && colDiff == 0) || (rowDiff == 0 && colDiff == 1);
+        return (Board.TRAP & Board.bit(row, col)) != 0;
     }
 
     /**
@@ -362,7 +357,7 @@ public class GameController extends JFrame{
      * @return true if the tile is a den, false otherwise.
      */
     public boolean isDen(int row, int col) {
-        return (row == 3 && (col == 0 || col == 8)); 
+        return (Board.DEN & Board.bit(row, col)) != 0;
     }
 
     /**
@@ -373,31 +368,25 @@ public class GameController extends JFrame{
      * @return true if the tile is the player's own den, false otherwise.
      */
     public boolean isOwnDen(int row, int col, boolean isBlueTeam) {
-        
-        return isDen(row, col) && (isBlueTeam ? (col == 0) : (col == 8));
-    }
-
-    /**
-     * Adds action listeners to the game pieces for selection.
-     * This method allows players to select their pieces by clicking on them.
-     */
-    public void addPieceSelectionListeners() {
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                final int r = row;
-                final int c = col;
-                GameModel.grid[row][col].addActionListener(e -> handleTileClick(r, c));
-            }
-        }
+        return (Board.DENS[isBlueTeam ? Board.BLUE : Board.GREEN] & Board.bit(row, col)) != 0;
     }
 
     /**
      * Handles key press events for piece movement.
-     * This method allows players to move their selected piece using keyboard keys (WASD).
+     * This method allows players to move their selected piece using keyboard keys (WASD),
+     * and to take moves back with Ctrl+Z and make them again with Ctrl+Y.
      * @param e The key event triggered by the user.
      */
     public void handleKeyPress(java.awt.event.KeyEvent e) {
-        if (selectedPiece == null || !GameModel.isGameStarted()) return;
+        if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_Z) {
+            undo();
+            return;
+        }
+        if (e.isControlDown() && e.getKeyCode() == java.awt.event.KeyEvent.VK_Y) {
+            redo();
+            return;
+        }
+        if (selectedRow < 0 || !state.isGameStarted() || isEngineTurn()) return;
 
         int newRow = selectedRow;
         int newCol = selectedCol;
@@ -413,11 +402,10 @@ public class GameController extends JFrame{
         if (newRow >= 0 && newRow < GameModel.ROWS && newCol >= 0 && newCol < GameModel.COLS) {
             if (isValidMove(selectedRow, selectedCol, newRow, newCol)) {
                 movePiece(selectedRow, selectedCol, newRow, newCol);
-                GameModel.toggleTurn();
                 gameView.clearSelection();
             }
         }
     }
 
-    
+
 }
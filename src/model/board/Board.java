@@ -0,0 +1,247 @@
+package src.model.board;
+
+import src.model.pieces.Cat;
+import src.model.pieces.Dog;
+import src.model.pieces.Elephant;
+import src.model.pieces.Leopard;
+import src.model.pieces.Lion;
+import src.model.pieces.Piece;
+import src.model.pieces.Rat;
+import src.model.pieces.Tiger;
+import src.model.pieces.Wolf;
+
+/**
+ * Board class holding the fixed geometry of the Jungle King board as bitboards.
+ * The standard 7x9 board has 63 squares, and no board may have more than 64, so every set of squares fits in a
+ * single long where bit (row * COLS + col) stands for the square at (row, col).
+ * The board is compiled from a BoardDefinition when the class is loaded: terrain lookup arrays, terrain masks,
+ * neighbour masks and lake jump tables are all computed once, so every rule check is a table lookup.
+ */
+public final class Board {
+    /** The board in use, the standard board unless the jungle.board system property names another. */
+    public static final BoardDefinition DEFINITION = BoardDefinition.load();
+
+    public static final int ROWS = DEFINITION.rows();
+    public static final int COLS = DEFINITION.cols();
+    public static final int SQUARES = ROWS * COLS;
+
+    public static final int BLUE = 0;
+    public static final int GREEN = 1;
+
+    public static final int RAT = 0;
+    public static final int CAT = 1;
+    public static final int DOG = 2;
+    public static final int WOLF = 3;
+    public static final int LEOPARD = 4;
+    public static final int TIGER = 5;
+    public static final int LION = 6;
+    public static final int ELEPHANT = 7;
+    public static final int TYPES = 8;
+
+    /** Piece code stored in an empty square. */
+    public static final int EMPTY = -1;
+
+    /** Name of every animal type, matching Piece.getName(). */
+    public static final String[] NAMES = { "Rat", "Cat", "Dog", "Wolf", "Leopard", "Tiger", "Lion", "Elephant" };
+
+    /** Letter of every animal type in text formats; the leopard is P since L is the lion. */
+    public static final String LETTERS = "RCDWPTLE";
+
+    /** Rank of every animal type, matching Piece.getRank(). */
+    public static final int[] RANK = { 1, 1, 2, 3, 4, 5, 6, 7 };
+
+    /** For every animal type, a bit set of the enemy animal types it may capture. */
+    public static final int[] CAPTURES = new int[TYPES];
+
+    /** Terrain of every square: BoardDefinition.LAND, LAKE, TRAP or DEN. */
+    public static final int[] TERRAIN = new int[SQUARES];
+    /** Side owning the trap or den on every square, or -1. */
+    public static final int[] OWNER = new int[SQUARES];
+    /** Piece code starting on every square, or EMPTY. */
+    public static final int[] START = new int[SQUARES];
+
+    public static final long LAKE;
+    public static final long TRAP;
+    public static final long DEN;
+    /** Traps surrounding each side's den, indexed by side. */
+    public static final long[] TRAPS = new long[2];
+    /** Den of each side, indexed by side. */
+    public static final long[] DENS = new long[2];
+
+    /** Orthogonal neighbours of every square. */
+    public static final long[] STEPS = new long[SQUARES];
+    /** Landing square of a lake jump from a square in each of the four directions, or -1. */
+    public static final int[] JUMP_TO = new int[SQUARES * 4];
+    /** Lake squares crossed by the jump stored at the same index in JUMP_TO. */
+    public static final long[] JUMP_PATH = new long[SQUARES * 4];
+
+    private static final int[] DROW = { -1, 1, 0, 0 };
+    private static final int[] DCOL = { 0, 0, -1, 1 };
+
+    static {
+        long lake = 0L;
+        for (int sq = 0; sq < SQUARES; sq++) {
+            TERRAIN[sq] = DEFINITION.terrain(sq);
+            OWNER[sq] = DEFINITION.owner(sq);
+            START[sq] = DEFINITION.piece(sq);
+            if (TERRAIN[sq] == BoardDefinition.LAKE) {
+                lake |= 1L << sq;
+            } else if (TERRAIN[sq] == BoardDefinition.TRAP) {
+                TRAPS[OWNER[sq]] |= 1L << sq;
+            } else if (TERRAIN[sq] == BoardDefinition.DEN) {
+                DENS[OWNER[sq]] |= 1L << sq;
+            }
+        }
+        LAKE = lake;
+        TRAP = TRAPS[BLUE] | TRAPS[GREEN];
+        DEN = DENS[BLUE] | DENS[GREEN];
+
+        for (int type = 0; type < TYPES; type++) {
+            for (int other = 0; other < TYPES; other++) {
+                if (RANK[type] >= RANK[other]) {
+                    CAPTURES[type] |= 1 << other;
+                }
+            }
+        }
+        CAPTURES[RAT] |= 1 << ELEPHANT;
+
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int row = row(sq);
+            int col = col(sq);
+            for (int dir = 0; dir < 4; dir++) {
+                int r = row + DROW[dir];
+                int c = col + DCOL[dir];
+                if (onBoard(r, c)) {
+                    STEPS[sq] |= bit(r, c);
+                }
+
+                // A jump crosses at least one lake square and lands on the first square past the lake
+                long path = 0L;
+                while (onBoard(r, c) && (LAKE & bit(r, c)) != 0) {
+                    path |= bit(r, c);
+                    r += DROW[dir];
+                    c += DCOL[dir];
+                }
+                boolean jump = path != 0 && (LAKE & bit(row, col)) == 0 && onBoard(r, c);
+                JUMP_TO[sq * 4 + dir] = jump ? square(r, c) : -1;
+                JUMP_PATH[sq * 4 + dir] = jump ? path : 0L;
+            }
+        }
+    }
+
+    private Board() {
+    }
+
+    /**
+     * Converts a row and column into a square index.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     * @return The square index.
+     */
+    public static int square(int row, int col) {
+        return row * COLS + col;
+    }
+
+    /**
+     * Returns the row of a square index.
+     * @param sq The square index.
+     * @return The row of the square.
+     */
+    public static int row(int sq) {
+        return sq / COLS;
+    }
+
+    /**
+     * Returns the column of a square index.
+     * @param sq The square index.
+     * @return The column of the square.
+     */
+    public static int col(int sq) {
+        return sq % COLS;
+    }
+
+    /**
+     * Returns the single-bit mask of a tile.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     * @return The mask with only the tile's bit set.
+     */
+    public static long bit(int row, int col) {
+        return 1L << square(row, col);
+    }
+
+    /**
+     * Checks if a row and column lie on the board.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     * @return true if the tile is on the board, false otherwise.
+     */
+    public static boolean onBoard(int row, int col) {
+        return row >= 0 && row < ROWS && col >= 0 && col < COLS;
+    }
+
+    /**
+     * Returns the side owning a piece code.
+     * @param code The piece code.
+     * @return BLUE or GREEN.
+     */
+    public static int side(int code) {
+        return code >>> 3;
+    }
+
+    /**
+     * Returns the animal type of a piece code.
+     * @param code The piece code.
+     * @return The animal type, from RAT to ELEPHANT.
+     */
+    public static int type(int code) {
+        return code & 7;
+    }
+
+    /**
+     * Builds the piece code for a side and animal type.
+     * @param side BLUE or GREEN.
+     * @param type The animal type.
+     * @return The piece code.
+     */
+    public static int code(int side, int type) {
+        return side << 3 | type;
+    }
+
+    /**
+     * Returns the animal type of a piece object.
+     * @param piece The piece to classify.
+     * @return The animal type, from RAT to ELEPHANT.
+     */
+    public static int typeOf(Piece piece) {
+        if (piece instanceof Rat) return RAT;
+        if (piece instanceof Cat) return CAT;
+        if (piece instanceof Dog) return DOG;
+        if (piece instanceof Wolf) return WOLF;
+        if (piece instanceof Leopard) return LEOPARD;
+        if (piece instanceof Tiger) return TIGER;
+        if (piece instanceof Lion) return LION;
+        if (piece instanceof Elephant) return ELEPHANT;
+        throw new IllegalArgumentException("Unknown piece: " + piece.getName());
+    }
+
+    /**
+     * Creates the piece object for a piece code.
+     * @param code The piece code.
+     * @return A new piece of the code's side and animal type.
+     */
+    public static Piece newPiece(int code) {
+        boolean isBlueTeam = side(code) == BLUE;
+        switch (type(code)) {
+            case RAT: return new Rat(isBlueTeam);
+            case CAT: return new Cat(isBlueTeam);
+            case DOG: return new Dog(isBlueTeam);
+            case WOLF: return new Wolf(isBlueTeam);
+            case LEOPARD: return new Leopard(isBlueTeam);
+            case TIGER: return new Tiger(isBlueTeam);
+            case LION: return new Lion(isBlueTeam);
+            case ELEPHANT: return new Elephant(isBlueTeam);
+            default: throw new IllegalArgumentException("Unknown piece code: " + code);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package src.model.board;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BoardDefinition class describing a board as data: its size, the terrain of every square, which side owns
+ * every trap and den, and where the pieces start. Board compiles the definition in use into its masks and
+ * tables when it is loaded, so a board variant needs a definition file and no code.
+ * A definition is text with a "terrain" section and a "pieces" section, each a grid of one cell per square
+ * separated by spaces, top row first. Lines starting with # are comments.
+ * Terrain cells are . for land, ~ for lake, b or g for a trap of the blue or green team, and B or G for the den
+ * of the blue or green team. Piece cells are . for an empty square or the letter of an animal from
+ * Board.LETTERS, uppercase for blue and lowercase for green; each team has every animal exactly once.
+ * The board in use is the standard board unless the system property jungle.board names a definition file.
+ */
+public final class BoardDefinition {
+    /** System property naming the definition file of the board to play on. */
+    public static final String PROPERTY = "jungle.board";
+
+    public static final int LAND = 0;
+    public static final int LAKE = 1;
+    public static final int TRAP = 2;
+    public static final int DEN = 3;
+
+    /** Largest number of squares, so that every set of squares fits in a long. */
+    public static final int MAX_SQUARES = 64;
+
+    private static final String TERRAIN_CELLS = ".~bgBG";
+
+    private static final String STANDARD =
+        "# Jungle King standard board\n"
+        + "terrain\n"
+        + ". . . . . . . . .\n"
+        + ". . . ~ ~ ~ . . .\n"
+        + "b . . ~ ~ ~ . . g\n"
+        + "B b . . . . . g G\n"
+        + "b . . ~ ~ ~ . . g\n"
+        + ". . . ~ ~ ~ . . .\n"
+        + ". . . . . . . . .\n"
+        + "pieces\n"
+        + "L . E . . . r . t\n"
+        + ". C . . . . . d .\n"
+        + ". . W . . . p . .\n"
+        + ". . . . . . . . .\n"
+        + ". . P . . . w . .\n"
+        + ". D . . . . . c .\n"
+        + "T . R . . . e . l\n";
+
+    private final int rows;
+    private final int cols;
+    private final int[] terrain;
+    private final int[] owner;
+    private final int[] pieces;
+
+    private BoardDefinition(int rows, int cols, int[] terrain, int[] owner, int[] pieces) {
+        this.rows = rows;
+        this.cols = cols;
+        this.terrain = terrain;
+        this.owner = owner;
+        this.pieces = pieces;
+    }
+
+    /**
+     * Returns the standard Jungle King board.
+     * @return The standard definition.
+     */
+    public static BoardDefinition standard() {
+        return parse(STANDARD);
+    }
+
+    /**
+     * Loads the board to play on: the file named by the system property jungle.board, or the standard board.
+     * @return The definition.
+     * @throws UncheckedIOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a valid definition.
+     */
+    public static BoardDefinition load() {
+        String file = System.getProperty(PROPERTY);
+        if (file == null) return standard();
+        try {
+            return parse(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read board definition " + file, e);
+        }
+    }
+
+    /**
+     * Parses a definition.
+     * @param text The definition, in the format described in the class documentation.
+     * @return The definition.
+     * @throws IllegalArgumentException If the text is not a valid definition.
+     */
+    public static BoardDefinition parse(String text) {
+        List<String[]> terrainRows = new ArrayList<>();
+        List<String[]> pieceRows = new ArrayList<>();
+        List<String[]> section = null;
+        String[] lines = text.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (line.equals("terrain")) {
+                section = terrainRows;
+            } else if (line.equals("pieces")) {
+                section = pieceRows;
+            } else if (section == null) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": expected terrain or pieces");
+            } else {
+                section.add(line.split("\\s+"));
+            }
+        }
+
+        int rows = terrainRows.size();
+        int cols = rows == 0 ? 0 : terrainRows.get(0).length;
+        if (rows == 0 || cols == 0) {
+            throw new IllegalArgumentException("the terrain section is empty");
+        }
+        if (rows * cols > MAX_SQUARES) {
+            throw new IllegalArgumentException("the board has " + rows * cols + " squares, more than " + MAX_SQUARES);
+        }
+        if (pieceRows.size() != rows) {
+            throw new IllegalArgumentException("the pieces section does not have " + rows + " rows");
+        }
+
+        int[] terrain = new int[rows * cols];
+        int[] owner = new int[rows * cols];
+        int[] pieces = new int[rows * cols];
+        int[] dens = new int[2];
+        boolean[] placed = new boolean[2 * Board.TYPES];
+        for (int row = 0; row < rows; row++) {
+            String[] terrainCells = terrainRows.get(row);
+            String[] pieceCells = pieceRows.get(row);
+            if (terrainCells.length != cols || pieceCells.length != cols) {
+                throw new IllegalArgumentException("row " + row + " does not have " + cols + " cells");
+            }
+            for (int col = 0; col < cols; col++) {
+                int sq = row * cols + col;
+                String cell = terrainCells[col];
+                int kind = cell.length() == 1 ? TERRAIN_CELLS.indexOf(cell.charAt(0)) : -1;
+                if (kind < 0) {
+                    throw cellError(row, col, "unknown terrain " + cell);
+                }
+                terrain[sq] = kind < 2 ? kind : kind < 4 ? TRAP : DEN;
+                owner[sq] = kind < 2 ? -1 : kind % 2 == 0 ? Board.BLUE : Board.GREEN;
+                if (terrain[sq] == DEN) {
+                    dens[owner[sq]]++;
+                }
+
+                pieces[sq] = parsePiece(pieceCells[col], row, col);
+                if (pieces[sq] != Board.EMPTY) {
+                    if (placed[pieces[sq]]) {
+                        throw cellError(row, col, "second " + pieceCells[col]);
+                    }
+                    if (terrain[sq] == LAKE || terrain[sq] == DEN) {
+                        throw cellError(row, col, "piece on a lake or den");
+                    }
+                    placed[pieces[sq]] = true;
+                }
+            }
+        }
+        if (dens[Board.BLUE] == 0 || dens[Board.GREEN] == 0) {
+            throw new IllegalArgumentException("each team needs a den");
+        }
+        for (int code = 0; code < placed.length; code++) {
+            if (!placed[code]) {
+                throw new IllegalArgumentException("missing piece " + letter(code));
+            }
+        }
+        return new BoardDefinition(rows, cols, terrain, owner, pieces);
+    }
+
+    /**
+     * Returns the number of rows.
+     * @return The row count.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     * @return The column count.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * Returns the terrain of a square.
+     * @param sq The square index, row * cols() + col.
+     * @return LAND, LAKE, TRAP or DEN.
+     */
+    public int terrain(int sq) {
+        return terrain[sq];
+    }
+
+    /**
+     * Returns the side owning the trap or den on a square.
+     * @param sq The square index.
+     * @return BLUE or GREEN, or -1 for land and lake.
+     */
+    public int owner(int sq) {
+        return owner[sq];
+    }
+
+    /**
+     * Returns the piece starting on a square.
+     * @param sq The square index.
+     * @return The piece code, or Board.EMPTY.
+     */
+    public int piece(int sq) {
+        return pieces[sq];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("terrain\n");
+        for (int sq = 0; sq < terrain.length; sq++) {
+            int kind = terrain[sq] < TRAP ? terrain[sq] : 2 * terrain[sq] - 2 + owner[sq];
+            text.append(TERRAIN_CELLS.charAt(kind)).append(sq % cols == cols - 1 ? '\n' : ' ');
+        }
+        text.append("pieces\n");
+        for (int sq = 0; sq < pieces.length; sq++) {
+            char cell = pieces[sq] == Board.EMPTY ? '.' : letter(pieces[sq]);
+            text.append(cell).append(sq % cols == cols - 1 ? '\n' : ' ');
+        }
+        return text.toString();
+    }
+
+    private static int parsePiece(String cell, int row, int col) {
+        if (cell.equals(".")) return Board.EMPTY;
+        int type = cell.length() == 1 ? Board.LETTERS.indexOf(Character.toUpperCase(cell.charAt(0))) : -1;
+        if (type < 0) {
+            throw cellError(row, col, "unknown piece " + cell);
+        }
+        return Board.code(Character.isUpperCase(cell.charAt(0)) ? Board.BLUE : Board.GREEN, type);
+    }
+
+    private static IllegalArgumentException cellError(int row, int col, String message) {
+        return new IllegalArgumentException("row " + row + " col " + col + ": " + message);
+    }
+
+    private static char letter(int code) {
+        char letter = Board.LETTERS.charAt(Board.type(code));
+        return Board.side(code) == Board.BLUE ? letter : Character.toLowerCase(letter);
+    }
+}
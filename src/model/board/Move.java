@@ -0,0 +1,95 @@
+package src.model.board;
+
+/**
+ * Move class with helpers for moves packed into a single int.
+ * Bits 0-5 hold the source square, bits 6-11 the destination square, bits 12-15 the captured
+ * animal type plus one (0 when nothing is captured) and bit 16 is set when the mover lands on an enemy trap.
+ * A packed move is never 0, so 0 is used as "no move".
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    private static final int TO_SHIFT = 6;
+    private static final int CAPTURE_SHIFT = 12;
+    private static final int TRAP_FLAG = 1 << 16;
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move into an int.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @param capturedType The animal type on the destination square, or -1 if it is empty.
+     * @param entersTrap Indicates if the mover lands on an enemy trap.
+     * @return The packed move.
+     */
+    public static int encode(int from, int to, int capturedType, boolean entersTrap) {
+        return from | to << TO_SHIFT | (capturedType + 1) << CAPTURE_SHIFT | (entersTrap ? TRAP_FLAG : 0);
+    }
+
+    /**
+     * Returns the source square of a packed move.
+     * @param move The packed move.
+     * @return The square of the piece.
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Returns the destination square of a packed move.
+     * @param move The packed move.
+     * @return The destination square.
+     */
+    public static int to(int move) {
+        return move >>> TO_SHIFT & 63;
+    }
+
+    /**
+     * Returns the animal type captured by a packed move.
+     * @param move The packed move.
+     * @return The captured animal type, or -1 if the move captures nothing.
+     */
+    public static int capturedType(int move) {
+        return (move >>> CAPTURE_SHIFT & 15) - 1;
+    }
+
+    /**
+     * Checks if a packed move captures a piece.
+     * @param move The packed move.
+     * @return true if the move captures, false otherwise.
+     */
+    public static boolean isCapture(int move) {
+        return (move >>> CAPTURE_SHIFT & 15) != 0;
+    }
+
+    /**
+     * Checks if a packed move lands the mover on an enemy trap.
+     * @param move The packed move.
+     * @return true if the mover ends up trapped, false otherwise.
+     */
+    public static boolean entersTrap(int move) {
+        return (move & TRAP_FLAG) != 0;
+    }
+
+    /**
+     * Formats a packed move as text, for example "c1-d1" or "c1xd1".
+     * Columns are letters from 'a' and rows are numbers from 1.
+     * @param move The packed move.
+     * @return The move as text.
+     */
+    public static String toString(int move) {
+        if (move == NONE) return "-";
+        return squareName(from(move)) + (isCapture(move) ? "x" : "-") + squareName(to(move));
+    }
+
+    /**
+     * Formats a square as text, for example "c1", in the notation of toString.
+     * @param sq The square index.
+     * @return The square as text.
+     */
+    public static String squareName(int sq) {
+        return "" + (char) ('a' + Board.col(sq)) + (Board.row(sq) + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package src.model.board;
+
+/**
+ * PieceSquareTable class holding the static worth of every piece on every square, which Position sums per side
+ * as moves are made and unmade, so evaluating a position needs no scan of the board.
+ * The worth of a piece is its material value, plus a bonus that grows as it gets close to the enemy den,
+ * minus a penalty on an enemy trap, where any enemy piece can take it, plus a bonus for a rat in the lake,
+ * where it blocks the lion and tiger jumps and cannot be taken from land.
+ * The table is built from the board in use when the class is loaded, so it follows board variants.
+ * The weights below can be fitted to recorded games with src.tuning.EvalTuner, which prints them in this form.
+ */
+public final class PieceSquareTable {
+    /** Material value of every animal type. The rat is worth more than its rank since it can take the elephant. */
+    public static final int[] MATERIAL = { 350, 200, 250, 300, 450, 750, 850, 900 };
+
+    /** Bonus by Manhattan distance to the enemy den; farther pieces on larger board variants get the last one. */
+    public static final int[] DEN_BONUS = { 0, 300, 120, 60, 30, 15, 8, 4, 2, 1, 0, 0, 0, 0, 0, 0 };
+
+    /** Value every animal type loses while it stands on an enemy trap, a quarter of its material value. */
+    public static final int[] TRAP_PENALTY = { 87, 50, 62, 75, 112, 187, 212, 225 };
+
+    /** Bonus of a rat swimming in the lake. */
+    public static final int RAT_IN_LAKE = 40;
+
+    /** Worth of every piece code on every square, indexed by code * SQUARES + square. */
+    public static final int[] VALUE = new int[2 * Board.TYPES * Board.SQUARES];
+
+    static {
+        for (int code = 0; code < 2 * Board.TYPES; code++) {
+            int side = Board.side(code);
+            int type = Board.type(code);
+            for (int sq = 0; sq < Board.SQUARES; sq++) {
+                long bit = 1L << sq;
+                int value = MATERIAL[type] + DEN_BONUS[denIndex(side, sq)];
+                if ((Board.TRAPS[side ^ 1] & bit) != 0) {
+                    value -= TRAP_PENALTY[type];
+                }
+                if (type == Board.RAT && (Board.LAKE & bit) != 0) {
+                    value += RAT_IN_LAKE;
+                }
+                VALUE[code * Board.SQUARES + sq] = value;
+            }
+        }
+    }
+
+    private PieceSquareTable() {
+    }
+
+    /**
+     * Returns the worth of a piece on a square.
+     * @param code The piece code.
+     * @param sq The square index.
+     * @return The worth.
+     */
+    public static int value(int code, int sq) {
+        return VALUE[code * Board.SQUARES + sq];
+    }
+
+    /**
+     * Returns the entry of DEN_BONUS for a piece of a side on a square: the Manhattan distance to the closest
+     * enemy den, or the last entry if it is farther.
+     * @param side BLUE or GREEN.
+     * @param sq The square index.
+     * @return The index into DEN_BONUS.
+     */
+    public static int denIndex(int side, int sq) {
+        int distance = Integer.MAX_VALUE;
+        long dens = Board.DENS[side ^ 1];
+        while (dens != 0) {
+            int den = Long.numberOfTrailingZeros(dens);
+            dens &= dens - 1;
+            distance = Math.min(distance,
+                Math.abs(Board.row(sq) - Board.row(den)) + Math.abs(Board.col(sq) - Board.col(den)));
+        }
+        return Math.min(distance, DEN_BONUS.length - 1);
+    }
+}
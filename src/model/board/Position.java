@@ -0,0 +1,357 @@
+package src.model.board;
+
+import java.util.Arrays;
+
+import src.model.pieces.Piece;
+
+/**
+ * Position class representing the pieces on the board as bitboards.
+ * It keeps one mask per side, one mask per piece code (side and animal), a mask of the pieces
+ * currently weakened by an enemy trap, and a square-to-piece lookup table.
+ * Move legality is answered with mask operations instead of walking a Piece[][] cell by cell.
+ * Moves are made and unmade in place: only the trap mask and the hash are saved per ply, everything else
+ * is reversed from the packed move itself, so searches never copy the board.
+ * The 64-bit Zobrist hash covers the pieces, their trap status and the side to move, and is updated on every move.
+ * The PieceSquareTable worth of each side's pieces is kept up to date the same way, so a static evaluation is a
+ * subtraction instead of a scan of the board.
+ */
+public final class Position {
+    private final long[] sides = new long[2];
+    private final long[] animals = new long[2 * Board.TYPES];
+    private final byte[] squares = new byte[Board.SQUARES];
+    private final int[] material = new int[2];
+    private final int[] placement = new int[2];
+    private long trapped;
+    private int sideToMove;
+    private long hash;
+    private long[] trapHistory = new long[256];
+    private long[] hashHistory = new long[256];
+    private int ply;
+
+    /**
+     * Constructor to create an empty position with the blue team to move.
+     */
+    public Position() {
+        Arrays.fill(squares, (byte) Board.EMPTY);
+        sideToMove = Board.BLUE;
+    }
+
+    /**
+     * Constructor to copy another position, for example to give a search its own board.
+     * The copy starts with an empty move history, so moves made before the copy cannot be unmade on it.
+     * @param other The position to copy.
+     */
+    public Position(Position other) {
+        System.arraycopy(other.sides, 0, sides, 0, sides.length);
+        System.arraycopy(other.animals, 0, animals, 0, animals.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        System.arraycopy(other.material, 0, material, 0, material.length);
+        System.arraycopy(other.placement, 0, placement, 0, placement.length);
+        trapped = other.trapped;
+        sideToMove = other.sideToMove;
+        hash = other.hash;
+    }
+
+    /**
+     * Creates a position from a grid of piece objects.
+     * The trap status of every piece is taken from its isInTrap flag.
+     * @param pieces The pieces on the board, null for empty tiles.
+     * @param blueToMove Indicates if the blue team moves next.
+     * @return The new position.
+     */
+    public static Position fromPieces(Piece[][] pieces, boolean blueToMove) {
+        Position position = new Position();
+        for (int row = 0; row < Board.ROWS; row++) {
+            for (int col = 0; col < Board.COLS; col++) {
+                Piece piece = pieces[row][col];
+                if (piece != null) {
+                    int side = piece.isBlueTeam() ? Board.BLUE : Board.GREEN;
+                    position.put(Board.square(row, col), Board.code(side, Board.typeOf(piece)), piece.isInTrap());
+                }
+            }
+        }
+        position.setSideToMove(blueToMove ? Board.BLUE : Board.GREEN);
+        return position;
+    }
+
+    /**
+     * Places a piece on an empty square.
+     * @param sq The square index.
+     * @param code The piece code.
+     * @param inTrap Indicates if the piece is weakened by an enemy trap.
+     */
+    public void put(int sq, int code, boolean inTrap) {
+        long bit = 1L << sq;
+        sides[Board.side(code)] |= bit;
+        animals[code] |= bit;
+        squares[sq] = (byte) code;
+        material[Board.side(code)] += Board.RANK[Board.type(code)];
+        placement[Board.side(code)] += PieceSquareTable.value(code, sq);
+        hash ^= Zobrist.piece(code, sq);
+        if (inTrap) {
+            trapped |= bit;
+            hash ^= Zobrist.TRAPPED[sq];
+        }
+    }
+
+    /**
+     * Returns the piece code on a square.
+     * @param sq The square index.
+     * @return The piece code, or Board.EMPTY.
+     */
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    /**
+     * Returns the squares occupied by one side.
+     * @param side BLUE or GREEN.
+     * @return The occupancy mask.
+     */
+    public long side(int side) {
+        return sides[side];
+    }
+
+    /**
+     * Returns the squares occupied by one piece code.
+     * @param code The piece code.
+     * @return The occupancy mask.
+     */
+    public long animals(int code) {
+        return animals[code];
+    }
+
+    /**
+     * Returns the squares of pieces weakened by an enemy trap.
+     * @return The trapped mask.
+     */
+    public long trapped() {
+        return trapped;
+    }
+
+    /**
+     * Returns the summed rank of the pieces a side has left on the board.
+     * @param side BLUE or GREEN.
+     * @return The material of the side.
+     */
+    public int material(int side) {
+        return material[side];
+    }
+
+    /**
+     * Returns the summed PieceSquareTable worth of the pieces a side has on the board.
+     * @param side BLUE or GREEN.
+     * @return The placement score of the side.
+     */
+    public int placement(int side) {
+        return placement[side];
+    }
+
+    /**
+     * Returns the number of moves made and not yet unmade.
+     * @return The ply count.
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * Returns the side to move.
+     * @return BLUE or GREEN.
+     */
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Method to set the side to move.
+     * @param side BLUE or GREEN.
+     */
+    public void setSideToMove(int side) {
+        if (side != sideToMove) {
+            hash ^= Zobrist.GREEN_TO_MOVE;
+        }
+        sideToMove = side;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position.
+     * @return The 64-bit hash.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns the enemy pieces a piece may capture without any help from a trap on the target square.
+     * @param code The piece code of the attacker.
+     * @return The mask of capturable enemy pieces.
+     */
+    public long capturable(int code) {
+        int enemy = Board.side(code) ^ 1;
+        int captures = Board.CAPTURES[Board.type(code)];
+        long mask = sides[enemy] & trapped;
+        for (int type = 0; type < Board.TYPES; type++) {
+            if ((captures & (1 << type)) != 0) {
+                mask |= animals[Board.code(enemy, type)];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns every square the piece on a square may legally move to.
+     * @param from The square of the piece.
+     * @return The mask of target squares, 0 if the square is empty.
+     */
+    public long targets(int from) {
+        int code = squares[from];
+        if (code == Board.EMPTY) return 0L;
+
+        int side = Board.side(code);
+        int type = Board.type(code);
+        long own = sides[side];
+        long enemy = sides[side ^ 1];
+        long capturable = capturable(code);
+
+        // Single steps: never onto own pieces or into the own den, only rats swim.
+        // A target standing on the mover's enemy traps can always be taken.
+        long targets = Board.STEPS[from] & ~own & ~Board.DENS[side];
+        if (type != Board.RAT) {
+            targets &= ~Board.LAKE;
+        }
+        targets &= ~enemy | capturable | Board.TRAPS[side ^ 1];
+
+        if (type == Board.LION || type == Board.TIGER) {
+            long rats = animals[Board.code(Board.BLUE, Board.RAT)] | animals[Board.code(Board.GREEN, Board.RAT)];
+            for (int dir = 0; dir < 4; dir++) {
+                int to = Board.JUMP_TO[from * 4 + dir];
+                if (to >= 0 && (Board.JUMP_PATH[from * 4 + dir] & rats) == 0) {
+                    long bit = 1L << to;
+                    if ((bit & (own | Board.DENS[side])) == 0 && ((bit & enemy) == 0 || (bit & capturable) != 0)) {
+                        targets |= bit;
+                    }
+                }
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Checks if moving the piece on one square to another is legal.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return true if the move is legal, false otherwise.
+     */
+    public boolean isLegalMove(int from, int to) {
+        return (targets(from) & (1L << to)) != 0;
+    }
+
+    /**
+     * Checks if a move is a lake jump that is currently open.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return true if the move jumps the lake with no rat in the way, false otherwise.
+     */
+    public boolean isLakeJump(int from, int to) {
+        int code = squares[from];
+        if (code == Board.EMPTY) return false;
+        int type = Board.type(code);
+        if (type != Board.LION && type != Board.TIGER) return false;
+
+        long rats = animals[Board.code(Board.BLUE, Board.RAT)] | animals[Board.code(Board.GREEN, Board.RAT)];
+        for (int dir = 0; dir < 4; dir++) {
+            if (Board.JUMP_TO[from * 4 + dir] == to) {
+                return (Board.JUMP_PATH[from * 4 + dir] & rats) == 0 && isLegalMove(from, to);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a packed move for the side to move.
+     * The move must be legal in this position, as produced by the move generator.
+     * @param move The packed move.
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        int side = sideToMove;
+        int enemy = side ^ 1;
+
+        if (ply == trapHistory.length) {
+            trapHistory = Arrays.copyOf(trapHistory, ply * 2);
+            hashHistory = Arrays.copyOf(hashHistory, ply * 2);
+        }
+        trapHistory[ply] = trapped;
+        hashHistory[ply++] = hash;
+
+        int capturedType = Move.capturedType(move);
+        if (capturedType >= 0) {
+            int captured = Board.code(enemy, capturedType);
+            sides[enemy] &= ~toBit;
+            animals[captured] &= ~toBit;
+            material[enemy] -= Board.RANK[capturedType];
+            placement[enemy] -= PieceSquareTable.value(captured, to);
+            hash ^= Zobrist.piece(captured, to);
+        }
+
+        int code = squares[from];
+        sides[side] ^= fromBit | toBit;
+        animals[code] ^= fromBit | toBit;
+        squares[to] = (byte) code;
+        squares[from] = (byte) Board.EMPTY;
+        placement[side] += PieceSquareTable.value(code, to) - PieceSquareTable.value(code, from);
+        hash ^= Zobrist.piece(code, from) ^ Zobrist.piece(code, to);
+
+        long oldTrapped = trapped;
+        trapped &= ~(fromBit | toBit);
+        if (Move.entersTrap(move)) {
+            trapped |= toBit;
+        }
+        long changed = oldTrapped ^ trapped;
+        while (changed != 0) {
+            hash ^= Zobrist.TRAPPED[Long.numberOfTrailingZeros(changed)];
+            changed &= changed - 1;
+        }
+
+        sideToMove = enemy;
+        hash ^= Zobrist.GREEN_TO_MOVE;
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring the position exactly.
+     * @param move The packed move that was made.
+     */
+    public void unmakeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        int enemy = sideToMove;
+        int side = enemy ^ 1;
+
+        int code = squares[to];
+        sides[side] ^= fromBit | toBit;
+        animals[code] ^= fromBit | toBit;
+        squares[from] = (byte) code;
+        squares[to] = (byte) Board.EMPTY;
+        placement[side] += PieceSquareTable.value(code, from) - PieceSquareTable.value(code, to);
+
+        int capturedType = Move.capturedType(move);
+        if (capturedType >= 0) {
+            int captured = Board.code(enemy, capturedType);
+            sides[enemy] |= toBit;
+            animals[captured] |= toBit;
+            squares[to] = (byte) captured;
+            material[enemy] += Board.RANK[capturedType];
+            placement[enemy] += PieceSquareTable.value(captured, to);
+        }
+
+        trapped = trapHistory[--ply];
+        hash = hashHistory[ply];
+        sideToMove = side;
+    }
+}
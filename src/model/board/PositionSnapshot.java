@@ -0,0 +1,117 @@
+package src.model.board;
+
+/**
+ * PositionSnapshot class holding an immutable copy of a position, taken after a move of a game.
+ * A Position is changed in place by every move, so no other thread may read one while a game is being played
+ * on it. A snapshot owns a private copy that nothing ever changes, and all its fields are final, so once
+ * published it can be read by any number of threads at once, without locks and without copying it again.
+ * Searches that need to make moves ask for their own working copy with toPosition.
+ */
+public final class PositionSnapshot {
+    private final Position position;
+    private final int ply;
+
+    /**
+     * Constructor to take a snapshot of a position.
+     * @param position The position to copy; later changes to it do not affect the snapshot.
+     * @param ply The number of moves made in the game before the position.
+     */
+    public PositionSnapshot(Position position, int ply) {
+        this.position = new Position(position);
+        this.ply = ply;
+    }
+
+    /**
+     * Returns the number of moves made in the game before this position.
+     * @return The ply count of the game.
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * Returns the piece code on a square.
+     * @param sq The square index.
+     * @return The piece code, or Board.EMPTY.
+     */
+    public int pieceAt(int sq) {
+        return position.pieceAt(sq);
+    }
+
+    /**
+     * Returns the squares occupied by one side.
+     * @param side BLUE or GREEN.
+     * @return The occupancy mask.
+     */
+    public long side(int side) {
+        return position.side(side);
+    }
+
+    /**
+     * Returns the squares occupied by one piece code.
+     * @param code The piece code.
+     * @return The occupancy mask.
+     */
+    public long animals(int code) {
+        return position.animals(code);
+    }
+
+    /**
+     * Returns the squares of pieces weakened by an enemy trap.
+     * @return The trapped mask.
+     */
+    public long trapped() {
+        return position.trapped();
+    }
+
+    /**
+     * Returns the summed rank of the pieces a side has left on the board.
+     * @param side BLUE or GREEN.
+     * @return The material of the side.
+     */
+    public int material(int side) {
+        return position.material(side);
+    }
+
+    /**
+     * Returns the summed PieceSquareTable worth of the pieces a side has on the board.
+     * @param side BLUE or GREEN.
+     * @return The placement score of the side.
+     */
+    public int placement(int side) {
+        return position.placement(side);
+    }
+
+    /**
+     * Returns the side to move.
+     * @return BLUE or GREEN.
+     */
+    public int sideToMove() {
+        return position.sideToMove();
+    }
+
+    /**
+     * Returns the Zobrist hash of the position.
+     * @return The 64-bit hash.
+     */
+    public long hash() {
+        return position.hash();
+    }
+
+    /**
+     * Returns every square the piece on a square may legally move to.
+     * @param from The square of the piece.
+     * @return The mask of target squares, 0 if the square is empty.
+     */
+    public long targets(int from) {
+        return position.targets(from);
+    }
+
+    /**
+     * Returns a copy of the position that the caller may make moves on.
+     * @return A new position equal to this snapshot, with an empty move history.
+     */
+    public Position toPosition() {
+        return new Position(position);
+    }
+}
@@ -0,0 +1,41 @@
+package src.model.board;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist class holding the random keys that Position combines into its 64-bit hash.
+ * There is one key per piece code and square, one per square for a trapped piece, and one for the
+ * green team to move. The keys come from a fixed seed so hashes are the same in every run.
+ */
+public final class Zobrist {
+    /** Key of every piece code on every square, indexed by code * SQUARES + square. */
+    public static final long[] PIECE = new long[2 * Board.TYPES * Board.SQUARES];
+    /** Key of a trapped piece on every square. */
+    public static final long[] TRAPPED = new long[Board.SQUARES];
+    /** Key added when the green team is to move. */
+    public static final long GREEN_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x4A554E474C45L);
+        for (int i = 0; i < PIECE.length; i++) {
+            PIECE[i] = random.nextLong();
+        }
+        for (int i = 0; i < TRAPPED.length; i++) {
+            TRAPPED[i] = random.nextLong();
+        }
+        GREEN_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a piece on a square.
+     * @param code The piece code.
+     * @param sq The square index.
+     * @return The key.
+     */
+    public static long piece(int code, int sq) {
+        return PIECE[code * Board.SQUARES + sq];
+    }
+}
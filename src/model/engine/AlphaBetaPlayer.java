@@ -0,0 +1,102 @@
+package src.model.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import src.model.board.Move;
+import src.model.board.Position;
+
+/**
+ * AlphaBetaPlayer class playing the best move found by an alpha-beta search within a fixed think time.
+ * With more than one thread the search runs as a ParallelSearch sharing one transposition table.
+ * On the opponent's time the player can ponder the position after the reply it expects. The table stays filled
+ * with what the ponder found, so any reply is answered from a warm table; if the opponent played the expected
+ * reply, the time already pondered counts towards the think time and the move may come at once.
+ */
+public class AlphaBetaPlayer implements Player {
+    /** Time budget of a ponder, long enough that only the stop token, a decided result or the depth limit ends it. */
+    private static final long PONDER_MILLIS = 3_600_000L;
+
+    private final ParallelSearch search;
+    private final long thinkMillis;
+    private SearchResult lastResult;
+    private long ponderHash;
+    private long ponderNanos;
+    private SearchResult ponderResult;
+
+    /**
+     * Constructor for the AlphaBetaPlayer class searching on one thread.
+     * @param thinkMillis The time budget of every move in milliseconds.
+     */
+    public AlphaBetaPlayer(long thinkMillis) {
+        this(thinkMillis, 1);
+    }
+
+    /**
+     * Constructor for the AlphaBetaPlayer class.
+     * @param thinkMillis The time budget of every move in milliseconds.
+     * @param threads The number of search threads, at least 1.
+     */
+    public AlphaBetaPlayer(long thinkMillis, int threads) {
+        this.thinkMillis = thinkMillis;
+        this.search = new ParallelSearch(threads);
+    }
+
+    /**
+     * Constructor for the AlphaBetaPlayer class with a transposition table of a given size, for running
+     * many players at once.
+     * @param thinkMillis The time budget of every move in milliseconds.
+     * @param threads The number of search threads, at least 1.
+     * @param tableMegabytes The size of the transposition table in megabytes.
+     */
+    public AlphaBetaPlayer(long thinkMillis, int threads, int tableMegabytes) {
+        this.thinkMillis = thinkMillis;
+        this.search = new ParallelSearch(threads, TranspositionTable.ofMegabytes(tableMegabytes));
+    }
+
+    @Override
+    public int chooseMove(Position position, AtomicBoolean stop) {
+        long millis = thinkMillis;
+        if (ponderResult != null && ponderHash == position.hash()) {
+            millis -= ponderNanos / 1_000_000;
+            // Pondered for most of the think time already: play the pondered move without searching again
+            if (millis <= thinkMillis / 4 && ponderResult.depth() > 0) {
+                lastResult = ponderResult;
+                ponderResult = null;
+                return lastResult.bestMove();
+            }
+            // A ponder without a usable result still leaves the move a real search on the warm table
+            millis = Math.max(millis, thinkMillis / 4);
+        }
+        ponderResult = null;
+        lastResult = search.search(position, millis, Search.MAX_PLY, stop);
+        return lastResult.bestMove();
+    }
+
+    @Override
+    public int predictedReply() {
+        if (lastResult == null) return Move.NONE;
+        int[] line = lastResult.principalVariation();
+        return line.length > 1 ? line[1] : Move.NONE;
+    }
+
+    @Override
+    public void ponder(Position position, AtomicBoolean stop) {
+        long start = System.nanoTime();
+        ponderResult = search.search(position, PONDER_MILLIS, Search.MAX_PLY, stop);
+        ponderHash = position.hash();
+        ponderNanos = System.nanoTime() - start;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        search.setListener(listener);
+    }
+
+    /**
+     * Returns the result of the last search.
+     * @return The last search result, or null before the first move.
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+}
@@ -0,0 +1,29 @@
+package src.model.engine;
+
+import src.model.board.PieceSquareTable;
+import src.model.board.Position;
+
+/**
+ * Evaluator class scoring positions for the search.
+ * A position is worth the PieceSquareTable values of the pieces on the board: their material, how close they are
+ * to the enemy den, whether they stand on an enemy trap and whether a rat holds the lake. Position keeps the sum
+ * of each side up to date on every move and unmove, so scoring a leaf costs two array reads.
+ * Scores are in centipawn-like units from the point of view of the side to move.
+ */
+public final class Evaluator {
+    /** Value of every animal type. The rat is worth more than its rank since it can take the elephant. */
+    public static final int[] VALUES = PieceSquareTable.MATERIAL;
+
+    private Evaluator() {
+    }
+
+    /**
+     * Scores a position for the side to move.
+     * @param position The position to score.
+     * @return The score, positive when the side to move is better.
+     */
+    public static int evaluate(Position position) {
+        int side = position.sideToMove();
+        return position.placement(side) - position.placement(side ^ 1);
+    }
+}
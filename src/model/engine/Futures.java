@@ -0,0 +1,39 @@
+package src.model.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Futures class waiting for the helper tasks of the parallel searches.
+ */
+final class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Waits for a task to end and returns its result. An interrupt does not cut the wait short, since the caller
+     * has already asked the task to stop; it is passed on by interrupting the current thread again afterwards.
+     * @param future The task.
+     * @param name The name of the task for the error message.
+     * @return The result of the task.
+     * @throws IllegalStateException If the task threw an exception.
+     */
+    static <T> T join(Future<T> future, String name) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(name + " failed", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
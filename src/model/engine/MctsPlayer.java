@@ -0,0 +1,283 @@
+package src.model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * MctsPlayer class playing the move found by a Monte Carlo tree search within a fixed think time.
+ * Moves are picked with UCT: the average result of a move plus an exploration bonus that shrinks as the move is
+ * tried more often. A leaf is scored by a playout that takes any winning move, usually takes the most valuable
+ * capture, and otherwise moves at random; a playout still running after PLAYOUT_PLIES moves is scored by the
+ * Evaluator instead. Results are in thousandths of a win.
+ * Several threads grow the same tree at once. A thread walking down the tree adds a virtual loss to every node on
+ * its path, which steers the other threads to different lines until its playout result replaces the loss.
+ */
+public class MctsPlayer implements Player {
+    /**
+     * Exploration constant of UCT. Theory suggests the square root of 2; smaller values search the best lines
+     * deeper, which played better in short self-play matches against the alpha-beta player.
+     */
+    public static final double DEFAULT_EXPLORATION = 0.5;
+
+    private static final int WIN = 1000;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int EXPAND_VISITS = 8;
+    private static final int PLAYOUT_PLIES = 80;
+    private static final int MAX_PATH = 512;
+    private static final double EVAL_SCALE = 300.0;
+
+    private final long thinkMillis;
+    private final int threads;
+    private final double exploration;
+    private final ThreadPoolExecutor helpers;
+    private volatile long lastPlayouts;
+
+    /**
+     * Constructor for the MctsPlayer class.
+     * @param thinkMillis The time budget of every move in milliseconds.
+     * @param threads The number of threads growing the tree, at least 1.
+     * @param exploration The UCT exploration constant.
+     */
+    public MctsPlayer(long thinkMillis, int threads, double exploration) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.thinkMillis = thinkMillis;
+        this.threads = threads;
+        this.exploration = exploration;
+
+        int size = Math.max(1, threads - 1);
+        helpers = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        helpers.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public int chooseMove(Position position, AtomicBoolean stop) {
+        lastPlayouts = 0;
+        Node root = new Node(Move.NONE);
+        Worker main = new Worker(position, root);
+        int count = root.expand(main.position, main.moves);
+        if (count == 0) return Move.NONE;
+        if (count == 1) return root.children[0].move;
+        for (Node child : root.children) {
+            if (child.terminal) return child.move;
+        }
+
+        long deadline = System.nanoTime() + thinkMillis * 1_000_000L;
+        List<Future<Long>> futures = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Worker helper = new Worker(position, root);
+            futures.add(helpers.submit(() -> helper.run(deadline, stop)));
+        }
+        long playouts = main.run(deadline, stop);
+        for (Future<Long> future : futures) {
+            playouts += Futures.join(future, "mcts helper");
+        }
+        lastPlayouts = playouts;
+
+        Node best = root.children[0];
+        for (Node child : root.children) {
+            if (child.visits > best.visits) best = child;
+        }
+        return best.move;
+    }
+
+    /**
+     * Returns the number of playouts of the last move, over all threads.
+     * @return The playout count.
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Node class holding the statistics of one move of the tree, seen from the side that made the move.
+     * Statistics are updated without locks; expansion is guarded by the node's monitor.
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicLongFieldUpdater<Node> SCORE = AtomicLongFieldUpdater.newUpdater(Node.class, "score");
+
+        final int move;
+        volatile int visits;
+        volatile long score;
+        volatile Node[] children;
+        /** true if the game is over after the move; the side that made it has then won. */
+        volatile boolean terminal;
+
+        Node(int move) {
+            this.move = move;
+        }
+
+        /**
+         * Creates a child for every legal move of a position, once.
+         * A position without moves is a win for the side that moved into it.
+         * @return The number of children.
+         */
+        int expand(Position position, int[] moves) {
+            synchronized (this) {
+                if (children == null) {
+                    int count = MoveGenerator.generate(position, moves);
+                    Node[] created = new Node[count];
+                    for (int i = 0; i < count; i++) {
+                        created[i] = new Node(moves[i]);
+                        created[i].terminal = Rules.isWinningMove(Move.to(moves[i]));
+                    }
+                    terminal |= count == 0;
+                    children = created;
+                }
+                return children.length;
+            }
+        }
+
+        void addVirtualLoss() {
+            VISITS.addAndGet(this, VIRTUAL_LOSS);
+        }
+
+        void update(int result) {
+            SCORE.addAndGet(this, result);
+            VISITS.addAndGet(this, 1 - VIRTUAL_LOSS);
+        }
+    }
+
+    /**
+     * Worker class growing the shared tree from one thread, with its own copy of the root position.
+     */
+    private final class Worker {
+        private final Position position;
+        private final Node root;
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final int[] playoutMoves = new int[PLAYOUT_PLIES];
+        private final Node[] path = new Node[MAX_PATH];
+
+        Worker(Position position, Node root) {
+            this.position = new Position(position);
+            this.root = root;
+        }
+
+        /**
+         * Runs iterations until the deadline or until the stop token is set.
+         * @return The number of playouts.
+         */
+        long run(long deadline, AtomicBoolean stop) {
+            long playouts = 0;
+            while (!stop.get() && System.nanoTime() < deadline) {
+                iterate();
+                playouts++;
+            }
+            return playouts;
+        }
+
+        /**
+         * Walks down the tree to a leaf, scores it and adds the result to every node on the path.
+         */
+        private void iterate() {
+            int length = 0;
+            Node node = root;
+            node.addVirtualLoss();
+            path[length++] = node;
+            while (!node.terminal && length < MAX_PATH) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.visits < EXPAND_VISITS || node.expand(position, moves) == 0) break;
+                    children = node.children;
+                }
+                if (children.length == 0) break;
+                node = select(node, children);
+                position.makeMove(node.move);
+                node.addVirtualLoss();
+                path[length++] = node;
+            }
+
+            // Result for the side that moved into the leaf
+            int result = node.terminal ? WIN : WIN - playout();
+            for (int i = length - 1; i >= 0; i--) {
+                path[i].update(result);
+                if (i > 0) position.unmakeMove(path[i].move);
+                result = WIN - result;
+            }
+        }
+
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(Math.max(1, parent.visits));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0) return child;
+                double value = child.score / (double) (WIN * visits) + exploration * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays a game from the worker's position and takes the moves back.
+         * @return The result for the side to move at the start of the playout.
+         */
+        private int playout() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int plies = 0;
+            int result;
+            while (true) {
+                int count = MoveGenerator.generate(position, moves);
+                if (count == 0) {
+                    result = 0;
+                    break;
+                }
+
+                int capture = -1;
+                int captureValue = -1;
+                int winning = -1;
+                for (int i = 0; i < count; i++) {
+                    int move = moves[i];
+                    if (Rules.isWinningMove(Move.to(move))) {
+                        winning = i;
+                        break;
+                    }
+                    if (Move.isCapture(move) && Evaluator.VALUES[Move.capturedType(move)] > captureValue) {
+                        capture = i;
+                        captureValue = Evaluator.VALUES[Move.capturedType(move)];
+                    }
+                }
+                if (winning >= 0) {
+                    result = WIN;
+                    break;
+                }
+                if (plies == PLAYOUT_PLIES) {
+                    result = (int) (WIN / (1 + Math.exp(-Evaluator.evaluate(position) / EVAL_SCALE)));
+                    break;
+                }
+
+                int move = capture >= 0 && random.nextInt(4) != 0 ? moves[capture] : moves[random.nextInt(count)];
+                position.makeMove(move);
+                playoutMoves[plies++] = move;
+            }
+
+            for (int i = plies - 1; i >= 0; i--) {
+                position.unmakeMove(playoutMoves[i]);
+            }
+            return plies % 2 == 0 ? result : WIN - result;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package src.model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import src.model.board.Move;
+import src.model.board.Position;
+
+/**
+ * ParallelSearch class running one Search per thread on the same position, all sharing one TranspositionTable
+ * (the "lazy SMP" scheme). The threads do not split the tree between them: each searches the whole tree, and
+ * what one thread stores in the table cuts off parts of the tree for the others. Every second helper starts one
+ * iteration deeper than the main search, so the threads drift apart instead of visiting the same nodes in step.
+ * The main search runs on the calling thread and decides when to stop; the helpers are stopped when it returns.
+ * An instance must only be used by one thread at a time.
+ */
+public final class ParallelSearch {
+    /** Size of the table of a parallel search created without one; it does not grow with the thread count. */
+    public static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    private final Search[] searches;
+    private final TranspositionTable table;
+    private final ThreadPoolExecutor helpers;
+
+    /**
+     * Constructor to create a parallel search with its own transposition table of DEFAULT_TABLE_MEGABYTES.
+     * @param threads The number of search threads, at least 1.
+     */
+    public ParallelSearch(int threads) {
+        this(threads, TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Constructor to create a parallel search using a given transposition table.
+     * @param threads The number of search threads, at least 1.
+     * @param table The table shared by all threads.
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.table = table;
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+        }
+
+        // Helper threads end after a while without work, so idle players do not keep threads alive
+        int size = Math.max(1, threads - 1);
+        helpers = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        helpers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Searches a position with every thread until the main search runs out of time or reaches the depth limit.
+     * The position is copied, so the caller's position is never modified.
+     * @param root The position to search.
+     * @param millis The time budget in milliseconds.
+     * @param maxDepth The deepest iteration to run.
+     * @return The deepest result of all threads, with the node count of all threads.
+     */
+    public SearchResult search(Position root, long millis, int maxDepth) {
+        return search(root, millis, maxDepth, new AtomicBoolean());
+    }
+
+    /**
+     * Searches a position with every thread until the main search runs out of time, reaches the depth limit or
+     * sees a stop token set. The position is copied, so the caller's position is never modified.
+     * @param root The position to search.
+     * @param millis The time budget in milliseconds.
+     * @param maxDepth The deepest iteration to run.
+     * @param stop The token that stops the search as soon as possible once set, from any thread.
+     * @return The deepest result of all threads, with the node count of all threads.
+     */
+    public SearchResult search(Position root, long millis, int maxDepth, AtomicBoolean stop) {
+        table.newSearch();
+
+        // The helpers share a token of their own, set as soon as the main search returns for whatever reason
+        AtomicBoolean helpersStop = new AtomicBoolean();
+        List<Future<SearchResult>> futures = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int firstDepth = 1 + (i & 1);
+            futures.add(helpers.submit(() -> helper.run(root, millis, maxDepth, firstDepth, helpersStop)));
+        }
+
+        SearchResult best = searches[0].run(root, millis, maxDepth, 1, stop);
+        helpersStop.set(true);
+
+        long nodes = best.nodes();
+        for (int i = 1; i < searches.length; i++) {
+            SearchResult result = Futures.join(futures.get(i - 1), "search helper");
+            nodes += searches[i].nodes();
+            // A helper stopped before it completed an iteration reports depth 0, so it never wins here
+            if (result.depth() > best.depth() && result.bestMove() != Move.NONE) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, best.elapsedMillis(),
+            best.principalVariation());
+    }
+
+    /**
+     * Sets the listener told about every completed iteration of the main search.
+     * The helpers are not reported, since their iterations run out of step with the main search.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(SearchListener listener) {
+        searches[0].setListener(listener);
+    }
+
+    /**
+     * Returns the number of search threads.
+     * @return The thread count.
+     */
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Returns the transposition table shared by the threads.
+     * @return The table.
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+}
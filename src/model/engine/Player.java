@@ -0,0 +1,59 @@
+package src.model.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import src.model.board.Move;
+import src.model.board.Position;
+
+/**
+ * Player interface for computer opponents.
+ * A GameController asks the player of the side to move for a move whenever it is that side's turn.
+ * Every request carries a stop token of its own. The player checks it while it thinks and never clears it, so a
+ * request cancelled at any time, even before the player has started on it, returns as soon as possible.
+ */
+public interface Player {
+    /**
+     * Chooses the move to play in a position. The position must not be modified.
+     * @param position The position, with the player's side to move.
+     * @return The packed move to play, or Move.NONE if there is no legal move.
+     */
+    default int chooseMove(Position position) {
+        return chooseMove(position, new AtomicBoolean());
+    }
+
+    /**
+     * Chooses the move to play in a position, returning early once a stop token is set.
+     * The position must not be modified.
+     * @param position The position, with the player's side to move.
+     * @param stop The token of this request; setting it from any thread asks the player to return at once.
+     * @return The packed move to play, or Move.NONE if there is no legal move.
+     */
+    int chooseMove(Position position, AtomicBoolean stop);
+
+    /**
+     * Sets the listener told about the progress of the following chooseMove calls.
+     * Players that have no progress to report ignore it.
+     * @param listener The listener, or null for none.
+     */
+    default void setSearchListener(SearchListener listener) {
+    }
+
+    /**
+     * Returns the reply the player expects from its opponent after its last move.
+     * @return The packed move, or Move.NONE if the player has no expectation.
+     */
+    default int predictedReply() {
+        return Move.NONE;
+    }
+
+    /**
+     * Searches a position the player expects to move in next, while the opponent is still thinking, so that a
+     * later chooseMove on the same position can use what was found. Returns once the stop token is set, or
+     * earlier if searching the position longer cannot help.
+     * Players that cannot make use of the opponent's time return at once.
+     * @param position The expected position, with the player's side to move. It must not be modified.
+     * @param stop The token of this request; setting it from any thread asks the player to return at once.
+     */
+    default void ponder(Position position, AtomicBoolean stop) {
+    }
+}
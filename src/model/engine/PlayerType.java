@@ -0,0 +1,36 @@
+package src.model.engine;
+
+/**
+ * PlayerType enum listing who can play a side: a human clicking tiles or one of the engines.
+ */
+public enum PlayerType {
+    HUMAN("Human"),
+    ALPHA_BETA("Computer (alpha-beta)"),
+    MCTS("Computer (MCTS)");
+
+    private final String label;
+
+    PlayerType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Creates a player of this type.
+     * @param thinkMillis The time budget of every engine move in milliseconds.
+     * @param threads The number of search threads of an engine.
+     * @param tableMegabytes The size of the transposition table of an alpha-beta engine, whatever its threads.
+     * @return The new player, or null for a human.
+     */
+    public Player create(long thinkMillis, int threads, int tableMegabytes) {
+        switch (this) {
+            case ALPHA_BETA: return new AlphaBetaPlayer(thinkMillis, threads, tableMegabytes);
+            case MCTS: return new MctsPlayer(thinkMillis, threads, MctsPlayer.DEFAULT_EXPLORATION);
+            default: return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
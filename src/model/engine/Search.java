@@ -0,0 +1,342 @@
+package src.model.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * Search class finding the best move of a position with a negamax alpha-beta search.
+ * It deepens iteratively until the time budget or the depth limit is reached, extends the leaves with a
+ * quiescence search over captures, and orders moves by the previous best line, captures, killer moves and
+ * the history heuristic. Results are kept in a TranspositionTable keyed by the position hash, which cuts off
+ * positions reached again through another move order; the table may be shared with other searches.
+ * Every search is stopped through a token of its own, which the search checks along with its clock and never
+ * clears, so a stop requested before the search has even started is not lost.
+ * An instance keeps its tables between searches and must only be used by one thread at a time.
+ */
+public final class Search {
+    public static final int INFINITY = 1_000_000;
+    public static final int WIN = 100_000;
+    public static final int MAX_PLY = 128;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int PV_SCORE = 1 << 29;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] orderScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[] history = new int[Board.SQUARES * Board.SQUARES];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final TranspositionTable table;
+
+    private Position position;
+    private int[] previousLine = new int[0];
+    private long nodes;
+    private long startNanos;
+    private long deadlineNanos;
+    private AtomicBoolean stop = new AtomicBoolean();
+    /** Set once the clock or the stop token has ended the running search; only the searching thread uses it. */
+    private boolean stopped;
+    private volatile SearchListener listener;
+
+    /**
+     * Constructor to create a search with its own 16 MB transposition table.
+     */
+    public Search() {
+        this(TranspositionTable.ofMegabytes(16));
+    }
+
+    /**
+     * Constructor to create a search using a given transposition table.
+     * @param table The table to read and store results in, possibly shared with other searches.
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Searches a position until the time budget or the depth limit is used up.
+     * The position is copied, so the caller's position is never modified.
+     * @param root The position to search.
+     * @param millis The time budget in milliseconds.
+     * @param maxDepth The deepest iteration to run.
+     * @return The result of the deepest completed iteration, or a depth 0 result with any legal move if the
+     *         search was stopped before one completed.
+     */
+    public SearchResult search(Position root, long millis, int maxDepth) {
+        return search(root, millis, maxDepth, new AtomicBoolean());
+    }
+
+    /**
+     * Searches a position until the time budget or the depth limit is used up, or until a stop token is set.
+     * The position is copied, so the caller's position is never modified.
+     * @param root The position to search.
+     * @param millis The time budget in milliseconds.
+     * @param maxDepth The deepest iteration to run.
+     * @param stop The token that stops the search as soon as possible once set, from any thread.
+     * @return The result of the deepest completed iteration, or a depth 0 result with any legal move if the
+     *         search was stopped before one completed.
+     */
+    public SearchResult search(Position root, long millis, int maxDepth, AtomicBoolean stop) {
+        table.newSearch();
+        return run(root, millis, maxDepth, 1, stop);
+    }
+
+    /**
+     * Runs the iterative deepening loop. The table is not told about the new search, since several searches may
+     * be running on it.
+     * @param root The position to search.
+     * @param millis The time budget in milliseconds.
+     * @param maxDepth The deepest iteration to run.
+     * @param firstDepth The first iteration to run.
+     * @param stop The token that stops the search once set.
+     * @return The result of the deepest completed iteration, or a depth 0 result with any legal move if none did.
+     */
+    SearchResult run(Position root, long millis, int maxDepth, int firstDepth, AtomicBoolean stop) {
+        this.stop = stop;
+        stopped = stop.get();
+        position = new Position(root);
+        nodes = 0;
+        startNanos = System.nanoTime();
+        deadlineNanos = startNanos + millis * 1_000_000L;
+        previousLine = new int[0];
+        ageTables();
+
+        SearchResult result = new SearchResult(Move.NONE, 0, 0, 0, 0, new int[0]);
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            // An aborted iteration leaves a partial line and no real score, so it is neither kept nor reported
+            if (stopped) break;
+
+            int[] line = new int[pvLength[0]];
+            System.arraycopy(pv[0], 0, line, 0, line.length);
+            previousLine = line;
+            result = new SearchResult(line.length > 0 ? line[0] : Move.NONE, score, depth, nodes, elapsedMillis(), line);
+            SearchListener current = listener;
+            if (current != null) {
+                current.iterationCompleted(result);
+            }
+
+            // Stop once the result is decided or the next iteration is unlikely to finish in time
+            if (stopped || result.isDecisive() || System.nanoTime() - startNanos > (deadlineNanos - startNanos) / 2) break;
+        }
+
+        // No iteration completed: fall back to any legal move, at depth 0 and without a score
+        if (result.bestMove() == Move.NONE && MoveGenerator.generate(position, moves[0]) > 0) {
+            result = new SearchResult(moves[0][0], 0, 0, nodes, elapsedMillis(), new int[] { moves[0][0] });
+        }
+        return result;
+    }
+
+    /**
+     * Sets the listener told about every completed iteration of the following searches.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of nodes visited by the current or last search.
+     * @return The node count.
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if ((++nodes & 1023) == 0) checkTime();
+        if (stopped) return 0;
+        if (depth <= 0 || ply >= MAX_PLY - 1) return quiesce(alpha, beta, ply);
+
+        long hash = position.hash();
+        long entry = table.probe(hash);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if (flag == TranspositionTable.EXACT
+                        || flag == TranspositionTable.LOWER && score >= beta
+                        || flag == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int[] buffer = moves[ply];
+        int count = MoveGenerator.generate(position, buffer);
+        if (count == 0) return -WIN + ply;
+
+        for (int i = 0; i < count; i++) {
+            if (Rules.isWinningMove(Move.to(buffer[i]))) {
+                pvLength[ply + 1] = 0;
+                updatePv(ply, buffer[i]);
+                return WIN - ply - 1;
+            }
+        }
+
+        scoreMoves(ply, count, hashMove, ply < previousLine.length ? previousLine[ply] : Move.NONE);
+        int alphaOriginal = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move)) {
+                            if (killers[ply][0] != move) {
+                                killers[ply][1] = killers[ply][0];
+                                killers[ply][0] = move;
+                            }
+                            history[Move.from(move) * Board.SQUARES + Move.to(move)] += depth * depth;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int flag = best <= alphaOriginal ? TranspositionTable.UPPER
+            : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(hash, bestMove, TranspositionTable.toTable(best, ply), depth, flag);
+        return best;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if ((++nodes & 1023) == 0) checkTime();
+        if (stopped) return 0;
+
+        int[] buffer = moves[ply];
+        int count = MoveGenerator.generate(position, buffer);
+        if (count == 0) return -WIN + ply;
+        for (int i = 0; i < count; i++) {
+            if (Rules.isWinningMove(Move.to(buffer[i]))) {
+                pvLength[ply + 1] = 0;
+                updatePv(ply, buffer[i]);
+                return WIN - ply - 1;
+            }
+        }
+
+        int standPat = Evaluator.evaluate(position);
+        if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        int captures = 0;
+        for (int i = 0; i < count; i++) {
+            if (Move.isCapture(buffer[i])) {
+                buffer[captures++] = buffer[i];
+            }
+        }
+        scoreMoves(ply, captures, Move.NONE, Move.NONE);
+        for (int i = 0; i < captures; i++) {
+            int move = nextMove(ply, i, captures);
+            position.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if (stopped) return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) break;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Gives every move of a ply an ordering score: the transposition table move first, then the previous best
+     * line's move, then captures of the most valuable victim by the least valuable attacker, then killer moves,
+     * then quiet moves by their history score.
+     */
+    private void scoreMoves(int ply, int count, int hashMove, int pvMove) {
+        int[] buffer = moves[ply];
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            if (move == hashMove) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (move == pvMove) {
+                scores[i] = PV_SCORE;
+            } else if (Move.isCapture(move)) {
+                int attacker = Board.type(position.pieceAt(Move.from(move)));
+                scores[i] = CAPTURE_SCORE + Evaluator.VALUES[Move.capturedType(move)] * 16 - attacker;
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = history[Move.from(move) * Board.SQUARES + Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * Moves the best-scored remaining move to index i and returns it.
+     */
+    private int nextMove(int ply, int i, int count) {
+        int[] buffer = moves[ply];
+        int[] scores = orderScores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        int move = buffer[best];
+        buffer[best] = buffer[i];
+        buffer[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Halves the history scores and clears the killers so that old searches weigh less than the current one.
+     */
+    private void ageTables() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+        for (int[] killer : killers) {
+            killer[0] = Move.NONE;
+            killer[1] = Move.NONE;
+        }
+    }
+
+    private void checkTime() {
+        if (stop.get() || System.nanoTime() > deadlineNanos) {
+            stopped = true;
+        }
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
@@ -0,0 +1,13 @@
+package src.model.engine;
+
+/**
+ * SearchListener interface receiving the progress of a running search.
+ * It is called on the search thread, so implementations must be quick and hand the result to their own thread.
+ */
+public interface SearchListener {
+    /**
+     * Called after every completed iteration of a search.
+     * @param result The depth, score and principal variation of the iteration.
+     */
+    void iterationCompleted(SearchResult result);
+}
@@ -0,0 +1,87 @@
+package src.model.engine;
+
+import src.model.board.Move;
+
+/**
+ * SearchResult class holding the outcome of one completed search iteration.
+ * Instances are immutable so they can be handed to other threads.
+ */
+public final class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final int[] principalVariation;
+
+    /**
+     * Constructor to create a search result.
+     * @param bestMove The packed best move, or Move.NONE if the side to move has no moves.
+     * @param score The score of the best move for the side to move.
+     * @param depth The depth of the completed iteration.
+     * @param nodes The number of nodes visited so far.
+     * @param elapsedMillis The time spent so far.
+     * @param principalVariation The expected line of play starting with the best move.
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.principalVariation = principalVariation.clone();
+    }
+
+    /**
+     * Returns the best move found.
+     * @return The packed move, or Move.NONE.
+     */
+    public int bestMove() { return bestMove; }
+
+    /**
+     * Returns the score of the best move.
+     * @return The score for the side to move.
+     */
+    public int score() { return score; }
+
+    /**
+     * Returns the depth of the completed iteration.
+     * @return The depth in plies.
+     */
+    public int depth() { return depth; }
+
+    /**
+     * Returns the number of nodes visited.
+     * @return The node count.
+     */
+    public long nodes() { return nodes; }
+
+    /**
+     * Returns the time spent searching.
+     * @return The elapsed time in milliseconds.
+     */
+    public long elapsedMillis() { return elapsedMillis; }
+
+    /**
+     * Returns the expected line of play.
+     * @return A copy of the packed moves of the line.
+     */
+    public int[] principalVariation() { return principalVariation.clone(); }
+
+    /**
+     * Checks if the score announces a forced win or loss.
+     * @return true if the score is a win or loss score, false otherwise.
+     */
+    public boolean isDecisive() {
+        return Math.abs(score) >= Search.WIN - Search.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        for (int move : principalVariation) {
+            line.append(' ').append(Move.toString(move));
+        }
+        return "depth " + depth + " score " + score + " nodes " + nodes + " time " + elapsedMillis + "ms pv" + line;
+    }
+}
@@ -0,0 +1,168 @@
+package src.model.engine;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable class remembering search results by position hash.
+ * The table has a power-of-two number of entries, each stored as two longs: the packed data and the hash
+ * XOR the data. Any number of search threads can read and write it without locks; an entry torn by two
+ * concurrent writers no longer passes the XOR check and simply reads as a miss.
+ * An entry is replaced by a search of the same position, by any entry from a newer search, or by a deeper result.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int MOVE_BITS = 17;
+    private static final int SCORE_BITS = 21;
+    private static final int DEPTH_BITS = 8;
+    private static final int FLAG_BITS = 2;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + SCORE_BITS;
+    private static final int FLAG_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    private static final int AGE_SHIFT = FLAG_SHIFT + FLAG_BITS;
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+
+    private final long[] slots;
+    private final int mask;
+    private volatile int age;
+
+    /**
+     * Constructor to create a table with a number of entries rounded down to a power of two.
+     * Every entry takes 16 bytes.
+     * @param entries The requested number of entries, at least 1.
+     */
+    public TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        slots = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * Creates a table that fits in a memory budget.
+     * @param megabytes The memory budget in megabytes.
+     * @return The new table.
+     */
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        return new TranspositionTable((int) Math.min(1 << 30, megabytes * (1L << 20) / 16));
+    }
+
+    /**
+     * Marks the start of a new search, so entries of older searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+    /**
+     * Looks up the packed data stored for a position.
+     * Use the static accessors (move, score, depth, flag) to read the returned value.
+     * @param hash The position hash.
+     * @return The packed data, or 0 if the position is not in the table.
+     */
+    public long probe(long hash) {
+        int index = ((int) hash & mask) << 1;
+        long data = slots[index];
+        long check = slots[index + 1];
+        return (check ^ data) == hash ? data : 0L;
+    }
+
+    /**
+     * Stores a search result for a position.
+     * @param hash The position hash.
+     * @param move The best move found, or Move.NONE.
+     * @param score The score, with win scores already made relative to the position (see toTable).
+     * @param depth The depth searched.
+     * @param flag EXACT, LOWER or UPPER.
+     */
+    public void store(long hash, int move, int score, int depth, int flag) {
+        int index = ((int) hash & mask) << 1;
+        long oldData = slots[index];
+        boolean samePosition = (slots[index + 1] ^ oldData) == hash;
+        if (!samePosition && oldData != 0 && age(oldData) == age && depth < depth(oldData)) return;
+        if (samePosition && move == 0) {
+            move = move(oldData);
+        }
+
+        long data = (move & ((1L << MOVE_BITS) - 1))
+            | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+            | (long) Math.min(depth, (1 << DEPTH_BITS) - 1) << DEPTH_SHIFT
+            | (long) flag << FLAG_SHIFT
+            | (long) age << AGE_SHIFT;
+        slots[index] = data;
+        slots[index + 1] = hash ^ data;
+    }
+
+    /**
+     * Returns the move of packed data.
+     * @param data The packed data returned by probe.
+     * @return The packed move, or Move.NONE.
+     */
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    /**
+     * Returns the score of packed data.
+     * @param data The packed data returned by probe.
+     * @return The stored score.
+     */
+    public static int score(long data) {
+        return (int) (data >>> SCORE_SHIFT & ((1L << SCORE_BITS) - 1)) - SCORE_OFFSET;
+    }
+
+    /**
+     * Returns the depth of packed data.
+     * @param data The packed data returned by probe.
+     * @return The stored depth.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT & ((1L << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * Returns the bound flag of packed data.
+     * @param data The packed data returned by probe.
+     * @return EXACT, LOWER or UPPER.
+     */
+    public static int flag(long data) {
+        return (int) (data >>> FLAG_SHIFT & ((1L << FLAG_BITS) - 1));
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT & 0xFF);
+    }
+
+    /**
+     * Converts a search score to a table score. Win scores count plies from the root; in the table they
+     * count plies from the stored position, so they stay correct when the position is reached at another ply.
+     * @param score The search score.
+     * @param ply The ply of the position.
+     * @return The table score.
+     */
+    public static int toTable(int score, int ply) {
+        if (score >= Search.WIN - Search.MAX_PLY) return score + ply;
+        if (score <= -Search.WIN + Search.MAX_PLY) return score - ply;
+        return score;
+    }
+
+    /**
+     * Converts a table score back to a search score at a ply.
+     * @param score The table score.
+     * @param ply The ply of the position.
+     * @return The search score.
+     */
+    public static int fromTable(int score, int ply) {
+        if (score >= Search.WIN - Search.MAX_PLY) return score - ply;
+        if (score <= -Search.WIN + Search.MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -11,11 +11,13 @@ public abstract class Piece {
     protected String name;
     protected int rank;
     protected boolean isBlueTeam;
+    protected String imagePath;
     protected ImageIcon icon;
     protected boolean isInTrap = false;
     
     /**
      * Constructor to initialize a piece with its name, rank, team color, and image path.
+     * The image is only loaded when getIcon is first called, so pieces used by the rules stay cheap.
      * @param name The name of the piece.
      * @param rank The rank of the piece.
      * @param isBlueTeam Indicates if the piece belongs to the blue team.
@@ -25,14 +27,7 @@ public abstract class Piece {
         this.name = name;
         this.rank = rank;
         this.isBlueTeam = isBlueTeam;
-        this.icon = new ImageIcon(imagePath);
-        java.net.URL imgURL = getClass().getResource(imagePath);
-        if (imgURL != null) {
-            this.icon = new ImageIcon(imgURL);
-        } else {
-            System.err.println("Resource not found: " + imagePath);
-            this.icon = new ImageIcon(); // Provide a fallback or handle the error
-        }
+        this.imagePath = imagePath;
     }
     
     /**
@@ -71,6 +66,12 @@ public abstract class Piece {
     public void setInTrap(boolean inTrap) {
         this.isInTrap = inTrap;
     }
+
+    /**
+     * Method to check if the piece is in a trap.
+     * @return true if the piece is in a trap, false otherwise.
+     */
+    public boolean isInTrap() { return isInTrap; }
     
     /**
      * Method to get name of the piece.
@@ -91,8 +92,25 @@ public abstract class Piece {
     public boolean isBlueTeam() { return isBlueTeam; }
 
     /**
-     * Method to get the icon representing the piece.
+     * Method to get the classpath resource of the image representing the piece.
+     * @return The image path.
+     */
+    public String getImagePath() { return imagePath; }
+
+    /**
+     * Method to get the icon representing the piece, loading it from the classpath on first use.
      * @return The ImageIcon of the piece.
      */
-    public ImageIcon getIcon() { return icon; }
+    public ImageIcon getIcon() {
+        if (icon == null) {
+            java.net.URL imgURL = getClass().getResource(imagePath);
+            if (imgURL != null) {
+                icon = new ImageIcon(imgURL);
+            } else {
+                System.err.println("Resource not found: " + imagePath);
+                icon = new ImageIcon(); // Provide a fallback or handle the error
+            }
+        }
+        return icon;
+    }
 }
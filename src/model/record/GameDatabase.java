@@ -0,0 +1,521 @@
+package src.model.record;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import src.model.board.Board;
+import src.model.board.Position;
+import src.model.rules.Rules;
+
+/**
+ * GameDatabase class answering questions about the positions of a game record file.
+ * The record file and an index next to it, named after it with ".idx" appended, are both memory-mapped, so
+ * opening a database reads nothing up front and only the pages a query touches are loaded.
+ * The index lists every position of every game as a 16-byte entry: the 64-bit Zobrist hash of the position,
+ * the game number, the ply and the winner of the game, sorted by hash as an unsigned number, then by game and
+ * ply. The positions of a hash are found by binary search and lie next to each other, so a query reads a few
+ * pages however many games the file holds. The index also lists where every game starts in the record file.
+ * The index is built by one pass over the games that spreads the entries over buckets on disk by the top byte
+ * of their hash, then sorts each bucket in memory, so building it never holds the whole index in memory.
+ * The index header keeps a fingerprint of the record file it was built from: its size, its last-modified time
+ * and a CRC of its first and last FINGERPRINT_BYTES. An index whose fingerprint does not match its record file
+ * is rebuilt when the database is opened, so a record file rewritten with the same size is not answered from a
+ * stale index.
+ * Positions are identified by hash alone; two different positions sharing a 64-bit hash are not told apart.
+ *
+ * Usage: java Main database FILE, which builds the index if needed and prints the statistics of the
+ * standard starting layouts.
+ */
+public final class GameDatabase implements Closeable {
+    private static final byte[] INDEX_MAGIC = { 'J', 'G', 'I' };
+    private static final int INDEX_VERSION = 2;
+    /**
+     * Magic, version, padding, then the record file size, the game count, the entry count, the record file's
+     * last-modified time and the CRC of its first and last bytes.
+     */
+    private static final int INDEX_HEADER_BYTES = 48;
+    /** Number of bytes at each end of the record file covered by the fingerprint's CRC. */
+    private static final int FINGERPRINT_BYTES = 1 << 16;
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_BITS = 8;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int BUCKET_BUFFER_BYTES = 1 << 14;
+    private static final int MAX_GAME_BYTES = GameRecordWriter.HEADER_BYTES + 2 * GameRecordWriter.MAX_PLIES;
+    private static final int INSERTION_SORT_LENGTH = 16;
+
+    private final MappedFile records;
+    private final MappedFile index;
+    private final long games;
+    private final long entries;
+    private final long entriesStart;
+
+    /**
+     * Occurrence class naming one position of one recorded game.
+     */
+    public static final class Occurrence {
+        private final long game;
+        private final int ply;
+
+        private Occurrence(long game, int ply) {
+            this.game = game;
+            this.ply = ply;
+        }
+
+        /**
+         * Returns the number of the game in the record file, from 0.
+         * @return The game number.
+         */
+        public long game() {
+            return game;
+        }
+
+        /**
+         * Returns the number of moves made in the game before the position was reached.
+         * @return The ply.
+         */
+        public int ply() {
+            return ply;
+        }
+
+        @Override
+        public String toString() {
+            return "game " + game + " ply " + ply;
+        }
+    }
+
+    private GameDatabase(MappedFile records, MappedFile index) {
+        this.records = records;
+        this.index = index;
+        this.games = index.getLong(16);
+        this.entries = index.getLong(24);
+        this.entriesStart = INDEX_HEADER_BYTES + 8 * games;
+    }
+
+    /**
+     * Opens the database of a game record file, building or rebuilding its index first if needed.
+     * @param recordFile The path of the game record file.
+     * @return The database.
+     * @throws IOException If a file cannot be read or written, or a game of the file is damaged.
+     */
+    public static GameDatabase open(Path recordFile) throws IOException {
+        Path indexFile = indexFile(recordFile);
+        if (!isCurrent(recordFile, indexFile)) {
+            buildIndex(recordFile, indexFile);
+        }
+        MappedFile records = new MappedFile(recordFile, MAX_GAME_BYTES);
+        try {
+            return new GameDatabase(records, new MappedFile(indexFile, ENTRY_BYTES));
+        } catch (IOException | RuntimeException e) {
+            records.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the path of the index of a game record file.
+     * @param recordFile The path of the game record file.
+     * @return The path of its index.
+     */
+    public static Path indexFile(Path recordFile) {
+        return recordFile.resolveSibling(recordFile.getFileName() + ".idx");
+    }
+
+    /**
+     * Builds the index of a game record file, replacing any existing index once it is complete.
+     * @param recordFile The path of the game record file.
+     * @param indexFile The path of the index.
+     * @throws IOException If a file cannot be read or written, or a game of the file is damaged.
+     */
+    public static void buildIndex(Path recordFile, Path indexFile) throws IOException {
+        int bucketCount = 1 << BUCKET_BITS;
+        Path[] bucketFiles = new Path[bucketCount];
+        DataOutputStream[] buckets = new DataOutputStream[bucketCount];
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            for (int i = 0; i < bucketCount; i++) {
+                bucketFiles[i] = indexFile.resolveSibling(indexFile.getFileName() + ".bucket" + i);
+                buckets[i] = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(bucketFiles[i]), BUCKET_BUFFER_BYTES));
+            }
+
+            // Pass 1: replay every game and spread its positions over the buckets
+            long[] offsets = new long[1024];
+            long games = 0;
+            long entries = 0;
+            long recordBytes;
+            long[] fingerprint = fingerprint(recordFile);
+            try (MappedFile records = new MappedFile(recordFile, MAX_GAME_BYTES)) {
+                recordBytes = records.size();
+                checkRecordHeader(records);
+                byte[] bytes = new byte[MAX_GAME_BYTES];
+                long[] hashes = new long[GameRecordWriter.MAX_PLIES + 1];
+                long offset = GameRecordWriter.MAGIC.length + 1;
+                while (offset < recordBytes) {
+                    if (offset + GameRecordWriter.HEADER_BYTES > recordBytes) {
+                        throw new IOException("game " + games + " is cut short");
+                    }
+                    int plies = records.getUnsignedShort(offset);
+                    int length = GameRecordWriter.HEADER_BYTES + 2 * plies;
+                    if (offset + length > recordBytes) {
+                        throw new IOException("game " + games + " is cut short");
+                    }
+                    records.get(offset, bytes, length);
+                    GameRecord record = GameRecordReader.decode(bytes, games, hashes);
+
+                    if (games == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[(int) games] = offset;
+                    for (int ply = 0; ply <= plies; ply++) {
+                        long hash = hashes[ply];
+                        DataOutputStream bucket = buckets[(int) (hash >>> 64 - BUCKET_BITS)];
+                        bucket.writeLong(hash);
+                        bucket.writeLong(payload(games, ply, record.winner()));
+                    }
+                    entries += plies + 1;
+                    games++;
+                    offset += length;
+                }
+            }
+            for (DataOutputStream bucket : buckets) {
+                bucket.close();
+            }
+
+            // Pass 2: sort every bucket and append it, in unsigned hash order
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_BYTES))) {
+                out.write(INDEX_MAGIC);
+                out.write(INDEX_VERSION);
+                out.writeInt(0);
+                out.writeLong(recordBytes);
+                out.writeLong(games);
+                out.writeLong(entries);
+                out.writeLong(fingerprint[0]);
+                out.writeLong(fingerprint[1]);
+                for (int game = 0; game < games; game++) {
+                    out.writeLong(offsets[game]);
+                }
+                for (int i = 0; i < bucketCount; i++) {
+                    writeSorted(bucketFiles[i], out);
+                    Files.delete(bucketFiles[i]);
+                }
+            }
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            for (int i = 0; i < bucketCount; i++) {
+                if (buckets[i] != null) {
+                    buckets[i].close();
+                }
+                if (bucketFiles[i] != null) {
+                    Files.deleteIfExists(bucketFiles[i]);
+                }
+            }
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Opens the database of a record file and prints what it knows about the standard starting layouts.
+     * @param args The path of the game record file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: database FILE");
+        }
+        Path recordFile = Paths.get(args[0]);
+        try {
+            long start = System.nanoTime();
+            boolean current = isCurrent(recordFile, indexFile(recordFile));
+            try (GameDatabase database = open(recordFile)) {
+                System.out.printf("%d games, %d positions, index %s in %.1f s%n",
+                    database.games(), database.positions(),
+                    current ? "opened" : "built", (System.nanoTime() - start) / 1e9);
+                for (int side = Board.BLUE; side <= Board.GREEN; side++) {
+                    Position position = Rules.standardLayout(side);
+                    long queryStart = System.nanoTime();
+                    PositionStats stats = database.stats(position);
+                    System.out.printf("standard layout, %s to move: %s  (%.2f ms)%n",
+                        side == Board.BLUE ? "blue" : "green", stats, (System.nanoTime() - queryStart) / 1e6);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of games in the database.
+     * @return The game count.
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Returns the number of positions in the index, one per ply of every game plus its start.
+     * @return The entry count.
+     */
+    public long positions() {
+        return entries;
+    }
+
+    /**
+     * Reads one game of the record file.
+     * @param number The number of the game, from 0 to games() - 1.
+     * @return The game.
+     * @throws IOException If the game is damaged.
+     */
+    public GameRecord game(long number) throws IOException {
+        if (number < 0 || number >= games) {
+            throw new IndexOutOfBoundsException("game " + number + " of " + games);
+        }
+        long offset = index.getLong(INDEX_HEADER_BYTES + 8 * number);
+        int length = GameRecordWriter.HEADER_BYTES + 2 * records.getUnsignedShort(offset);
+        byte[] bytes = new byte[length];
+        records.get(offset, bytes, length);
+        return GameRecordReader.decode(bytes, number, null);
+    }
+
+    /**
+     * Finds every time a position was reached in the recorded games.
+     * @param position The position, with its side to move.
+     * @return The occurrences, by game and then ply.
+     */
+    public List<Occurrence> find(Position position) {
+        return find(position.hash());
+    }
+
+    /**
+     * Finds every time a position was reached in the recorded games.
+     * @param hash The Zobrist hash of the position.
+     * @return The occurrences, by game and then ply.
+     */
+    public List<Occurrence> find(long hash) {
+        List<Occurrence> found = new ArrayList<>();
+        for (long entry = firstEntry(hash); entry < entries && index.getLong(entryAt(entry)) == hash; entry++) {
+            long at = entryAt(entry);
+            found.add(new Occurrence(index.getInt(at + 8) & 0xFFFFFFFFL, index.getUnsignedShort(at + 12)));
+        }
+        return found;
+    }
+
+    /**
+     * Counts how the games that reached a position ended.
+     * @param position The position, with its side to move.
+     * @return The statistics of the position.
+     */
+    public PositionStats stats(Position position) {
+        return stats(position.hash());
+    }
+
+    /**
+     * Counts how the games that reached a position ended.
+     * @param hash The Zobrist hash of the position.
+     * @return The statistics of the position.
+     */
+    public PositionStats stats(long hash) {
+        long games = 0;
+        long[] wins = new long[2];
+        long occurrences = 0;
+        long lastGame = -1;
+        for (long entry = firstEntry(hash); entry < entries && index.getLong(entryAt(entry)) == hash; entry++) {
+            long at = entryAt(entry);
+            occurrences++;
+            long game = index.getInt(at + 8) & 0xFFFFFFFFL;
+            if (game == lastGame) continue;
+            lastGame = game;
+            games++;
+            int winner = index.getUnsignedByte(at + 14) - 1;
+            if (winner >= 0) {
+                wins[winner]++;
+            }
+        }
+        return new PositionStats(games, wins[Board.BLUE], wins[Board.GREEN], occurrences);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            index.close();
+        } finally {
+            records.close();
+        }
+    }
+
+    private long entryAt(long entry) {
+        return entriesStart + entry * ENTRY_BYTES;
+    }
+
+    /**
+     * Finds the first entry whose hash is not below a hash.
+     */
+    private long firstEntry(long hash) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long mid = low + high >>> 1;
+            if (Long.compareUnsigned(index.getLong(entryAt(mid)), hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isCurrent(Path recordFile, Path indexFile) throws IOException {
+        if (!Files.isRegularFile(indexFile) || Files.size(indexFile) < INDEX_HEADER_BYTES) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 64))) {
+            byte[] magic = new byte[INDEX_MAGIC.length];
+            in.readFully(magic);
+            int version = in.readUnsignedByte();
+            in.readInt();
+            if (!Arrays.equals(magic, INDEX_MAGIC) || version != INDEX_VERSION
+                    || in.readLong() != Files.size(recordFile)) return false;
+            in.readLong();
+            in.readLong();
+            long[] fingerprint = fingerprint(recordFile);
+            return in.readLong() == fingerprint[0] && in.readLong() == fingerprint[1];
+        }
+    }
+
+    /**
+     * Returns the last-modified time of a record file and the CRC of its first and last FINGERPRINT_BYTES,
+     * which together tell a rewritten file from the one an index was built from without reading all of it.
+     */
+    private static long[] fingerprint(Path recordFile) throws IOException {
+        long modified = Files.getLastModifiedTime(recordFile).toMillis();
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(recordFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, FINGERPRINT_BYTES));
+            readFully(channel, buffer, 0);
+            crc.update(buffer.flip());
+            if (size > FINGERPRINT_BYTES) {
+                buffer.clear();
+                readFully(channel, buffer, size - FINGERPRINT_BYTES);
+                crc.update(buffer.flip());
+            }
+        }
+        return new long[] { modified, crc.getValue() };
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("record file is shorter than expected");
+            }
+        }
+    }
+
+    private static void checkRecordHeader(MappedFile records) throws IOException {
+        int headerBytes = GameRecordWriter.MAGIC.length + 1;
+        if (records.size() < headerBytes) {
+            throw new IOException("not a game record file");
+        }
+        for (int i = 0; i < GameRecordWriter.MAGIC.length; i++) {
+            if (records.getUnsignedByte(i) != GameRecordWriter.MAGIC[i]) {
+                throw new IOException("not a game record file");
+            }
+        }
+        int version = records.getUnsignedByte(GameRecordWriter.MAGIC.length);
+        if (version != GameRecordWriter.VERSION) {
+            throw new IOException("unsupported game record version " + version);
+        }
+    }
+
+    /**
+     * Packs what an entry holds besides its hash so that packed values sort by game, then ply.
+     */
+    private static long payload(long game, int ply, int winner) {
+        return game << 24 | (long) ply << 8 | winner + 1;
+    }
+
+    /**
+     * Reads the entries of a bucket file, sorts them and writes them in the index format.
+     * All hashes of a bucket share their top byte, so signed order within a bucket is unsigned order.
+     */
+    private static void writeSorted(Path bucketFile, DataOutputStream out) throws IOException {
+        int count = (int) (Files.size(bucketFile) / ENTRY_BYTES);
+        long[] hashes = new long[count];
+        long[] payloads = new long[count];
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(bucketFile), BUFFER_BYTES))) {
+            for (int i = 0; i < count; i++) {
+                hashes[i] = in.readLong();
+                payloads[i] = in.readLong();
+            }
+        }
+        sort(hashes, payloads, 0, count);
+        for (int i = 0; i < count; i++) {
+            long payload = payloads[i];
+            out.writeLong(hashes[i]);
+            out.writeInt((int) (payload >>> 24));
+            out.writeShort((int) (payload >>> 8));
+            out.writeByte((int) payload);
+            out.writeByte(0);
+        }
+    }
+
+    /**
+     * Sorts a range of entries by hash, then payload, with a quicksort that moves both arrays together.
+     */
+    private static void sort(long[] hashes, long[] payloads, int from, int to) {
+        while (to - from > INSERTION_SORT_LENGTH) {
+            int mid = from + to >>> 1;
+            long pivotHash = hashes[mid];
+            long pivotPayload = payloads[mid];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (less(hashes[i], payloads[i], pivotHash, pivotPayload)) i++;
+                while (less(pivotHash, pivotPayload, hashes[j], payloads[j])) j--;
+                if (i <= j) {
+                    swap(hashes, payloads, i++, j--);
+                }
+            }
+            // Recurse into the smaller part and loop on the larger one, so the stack stays shallow
+            if (j + 1 - from < to - i) {
+                sort(hashes, payloads, from, j + 1);
+                from = i;
+            } else {
+                sort(hashes, payloads, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && less(hashes[j], payloads[j], hashes[j - 1], payloads[j - 1]); j--) {
+                swap(hashes, payloads, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long hash, long payload, long otherHash, long otherPayload) {
+        return hash < otherHash || hash == otherHash && payload < otherPayload;
+    }
+
+    private static void swap(long[] hashes, long[] payloads, int i, int j) {
+        long hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+        long payload = payloads[i];
+        payloads[i] = payloads[j];
+        payloads[j] = payload;
+    }
+}
@@ -0,0 +1,181 @@
+package src.model.record;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.rules.GameState;
+import src.model.rules.Rules;
+
+/**
+ * GameRecord class holding everything needed to replay one game: the shuffled selection layout, the piece each
+ * team picked from it, every packed move and the winner. Records are immutable; they are written and read in
+ * bulk by GameRecordWriter and GameRecordReader, and can be formatted as one line of text.
+ */
+public final class GameRecord {
+    /** Winner of a game that was stopped before a piece entered a den. */
+    public static final int NO_WINNER = -1;
+
+    private final int[] layout;
+    private final int[] selectedSquares;
+    private final int[] moves;
+    private final int winner;
+
+    /**
+     * Constructor to create a game record.
+     * @param layout The piece codes of the selection layout, in the order Rules.selectionLayout places them.
+     * @param blueSquare The square of the piece the blue team picked.
+     * @param greenSquare The square of the piece the green team picked.
+     * @param moves The packed moves of the game, in the order they were made.
+     * @param winner BLUE, GREEN or NO_WINNER.
+     */
+    public GameRecord(int[] layout, int blueSquare, int greenSquare, int[] moves, int winner) {
+        if (layout.length != Rules.SELECTION_SLOTS) {
+            throw new IllegalArgumentException("expected " + Rules.SELECTION_SLOTS + " pieces: " + layout.length);
+        }
+        for (int code : layout) {
+            if (code < 0 || code >= 2 * Board.TYPES) {
+                throw new IllegalArgumentException("not a piece code: " + code);
+            }
+        }
+        if (winner < NO_WINNER || winner > Board.GREEN) {
+            throw new IllegalArgumentException("not a winner: " + winner);
+        }
+        this.layout = layout.clone();
+        this.selectedSquares = new int[] { blueSquare, greenSquare };
+        this.moves = moves.clone();
+        this.winner = winner;
+        for (int side = Board.BLUE; side <= Board.GREEN; side++) {
+            int slot = Rules.selectionSlot(selectedSquares[side]);
+            if (slot < 0 || Board.side(this.layout[slot]) != side) {
+                throw new IllegalArgumentException("not a " + (side == Board.BLUE ? "blue" : "green")
+                    + " piece of the layout: " + selectedSquares[side]);
+            }
+        }
+    }
+
+    /**
+     * Records a game that has started.
+     * @param state The game.
+     * @return The record of the game so far, with the winner of the state.
+     */
+    public static GameRecord of(GameState state) {
+        if (!state.isGameStarted()) {
+            throw new IllegalStateException("the pieces have not been selected yet");
+        }
+        int[] moves = new int[state.plies()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = state.moveAt(ply);
+        }
+        return new GameRecord(state.layout(), state.selectedSquare(Board.BLUE), state.selectedSquare(Board.GREEN),
+            moves, state.winner());
+    }
+
+    /**
+     * Returns a copy of this record with another winner, for games decided by something other than a den,
+     * such as a tournament adjudication.
+     * @param winner BLUE, GREEN or NO_WINNER.
+     * @return The new record.
+     */
+    public GameRecord withWinner(int winner) {
+        if (winner == this.winner) return this;
+        return new GameRecord(layout, selectedSquares[Board.BLUE], selectedSquares[Board.GREEN], moves, winner);
+    }
+
+    /**
+     * Returns the piece codes of the selection layout.
+     * @return A copy of the codes, in the order Rules.selectionLayout places them.
+     */
+    public int[] layout() {
+        return layout.clone();
+    }
+
+    /**
+     * Returns the piece code in one slot of the selection layout.
+     * @param slot The slot, from 0 to Rules.SELECTION_SLOTS - 1.
+     * @return The piece code.
+     */
+    public int layoutCode(int slot) {
+        return layout[slot];
+    }
+
+    /**
+     * Returns the square of the piece a team picked.
+     * @param side BLUE or GREEN.
+     * @return The square in the selection layout.
+     */
+    public int selectedSquare(int side) {
+        return selectedSquares[side];
+    }
+
+    /**
+     * Returns the number of moves of the game.
+     * @return The ply count.
+     */
+    public int plies() {
+        return moves.length;
+    }
+
+    /**
+     * Returns one move of the game.
+     * @param ply The number of moves made before it.
+     * @return The packed move.
+     */
+    public int move(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * Returns the side that won the game.
+     * @return BLUE, GREEN or NO_WINNER.
+     */
+    public int winner() {
+        return winner;
+    }
+
+    /**
+     * Plays the game back up to a ply.
+     * @param plies The number of moves to make, from 0 to plies().
+     * @return A new game state after the selections and the moves.
+     * @throws IllegalStateException If a move of the record is not legal.
+     */
+    public GameState replay(int plies) {
+        GameState state = new GameState(layout);
+        state.selectInitialPiece(selectedSquares[Board.BLUE]);
+        state.selectInitialPiece(selectedSquares[Board.GREEN]);
+        for (int ply = 0; ply < plies; ply++) {
+            if (!state.move(moves[ply])) {
+                throw new IllegalStateException("illegal move at ply " + ply + ": " + Move.toString(moves[ply]));
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Formats the record as one line of key=value fields, for example
+     * "result=1-0 layout=LEcrWd... blue=c1 green=f5 moves=c1-d1,f5-f4,...".
+     * The layout lists the pieces in placement order by their Board.LETTERS, uppercase for blue and lowercase
+     * for green.
+     * @return The record as text.
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder(64 + 6 * moves.length);
+        text.append("result=").append(winner == Board.BLUE ? "1-0" : winner == Board.GREEN ? "0-1" : "*");
+        text.append(" layout=");
+        for (int code : layout) {
+            char letter = Board.LETTERS.charAt(Board.type(code));
+            text.append(Board.side(code) == Board.BLUE ? letter : Character.toLowerCase(letter));
+        }
+        text.append(" blue=").append(Move.squareName(selectedSquares[Board.BLUE]));
+        text.append(" green=").append(Move.squareName(selectedSquares[Board.GREEN]));
+        text.append(" moves=");
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (ply > 0) text.append(',');
+            text.append(Move.toString(moves[ply]));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
@@ -0,0 +1,170 @@
+package src.model.record;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * GameRecordReader class reading game records one at a time from a stream in the format of GameRecordWriter.
+ * Only the game being read is held in memory, so files of millions of games can be processed in one pass.
+ * Every game is replayed while it is read: this restores the full packed moves and rejects a damaged file
+ * instead of returning games that cannot be played.
+ *
+ * Usage: java Main export FILE..., which prints every game of the files as one line of text.
+ */
+public final class GameRecordReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final DataInputStream in;
+    /** The game being read, as stored: the header, then the moves. */
+    private byte[] bytes = new byte[GameRecordWriter.HEADER_BYTES + 2 * 512];
+    private long games;
+
+    /**
+     * Constructor to create a reader on a stream and check the file header.
+     * @param in The stream holding the games; it is closed with the reader.
+     * @throws IOException If the header cannot be read or is not a supported version of the format.
+     */
+    public GameRecordReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_BYTES));
+        byte[] magic = new byte[GameRecordWriter.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, GameRecordWriter.MAGIC)) {
+            throw new IOException("not a game record file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != GameRecordWriter.VERSION) {
+            throw new IOException("unsupported game record version " + version);
+        }
+    }
+
+    /**
+     * Opens a game file.
+     * @param file The path of the file.
+     * @return A reader on the file.
+     * @throws IOException If the file cannot be opened or is not a game record file.
+     */
+    public static GameRecordReader open(Path file) throws IOException {
+        return new GameRecordReader(Files.newInputStream(file));
+    }
+
+    /**
+     * Prints every game of the given files as text.
+     * @param args The paths of the files.
+     */
+    public static void main(String[] args) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        try {
+            for (String arg : args) {
+                try (GameRecordReader reader = open(Paths.get(arg))) {
+                    for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                        out.write(record.toText());
+                        out.write('\n');
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next game.
+     * @return The game, or null at the end of the stream.
+     * @throws IOException If the game cannot be read, ends early or cannot be replayed.
+     */
+    public GameRecord next() throws IOException {
+        int high = in.read();
+        if (high < 0) return null;
+        bytes[0] = (byte) high;
+        try {
+            in.readFully(bytes, 1, GameRecordWriter.HEADER_BYTES - 1);
+            int length = GameRecordWriter.HEADER_BYTES + 2 * (high << 8 | bytes[1] & 0xFF);
+            if (bytes.length < length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length, bytes.length * 2));
+            }
+            in.readFully(bytes, GameRecordWriter.HEADER_BYTES, length - GameRecordWriter.HEADER_BYTES);
+        } catch (EOFException e) {
+            throw new IOException("game " + games + " is cut short", e);
+        }
+        return decode(bytes, games++, null);
+    }
+
+    /**
+     * Returns the number of games read so far.
+     * @return The game count.
+     */
+    public long games() {
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Builds a game from its stored bytes, replaying it to restore the packed moves.
+     * @param bytes The game as stored: the header, then the moves.
+     * @param number The number of the game in its file, for error messages.
+     * @param hashes Receives the hash of the position after every ply, from 0 to the number of moves, or null.
+     * @return The game.
+     * @throws IOException If the game is damaged and cannot be replayed.
+     */
+    static GameRecord decode(byte[] bytes, long number, long[] hashes) throws IOException {
+        int plies = (bytes[0] & 0xFF) << 8 | bytes[1] & 0xFF;
+        int[] layout = new int[Rules.SELECTION_SLOTS];
+        for (int slot = 0; slot < layout.length; slot += 2) {
+            int both = bytes[2 + slot / 2] & 0xFF;
+            layout[slot] = both >>> 4;
+            layout[slot + 1] = both & 15;
+        }
+        int blueSlot = (bytes[10] & 0xFF) >>> 4;
+        int greenSlot = bytes[10] & 15;
+        if (Board.side(layout[blueSlot]) != Board.BLUE || Board.side(layout[greenSlot]) != Board.GREEN) {
+            throw new IOException("game " + number + " has invalid piece selections");
+        }
+        int winner = (bytes[11] & 0xFF) - 1;
+        if (winner > Board.GREEN) {
+            throw new IOException("game " + number + " has no valid winner: " + winner);
+        }
+
+        // Replayed on a bare position: GameState would check every move a second time
+        int first = Rules.firstSide(Board.type(layout[blueSlot]), Board.type(layout[greenSlot]));
+        Position position = Rules.standardLayout(first);
+        int[] moves = new int[plies];
+        if (hashes != null) hashes[0] = position.hash();
+        for (int ply = 0, at = GameRecordWriter.HEADER_BYTES; ply < plies; ply++, at += 2) {
+            int packed = (bytes[at] & 0xFF) << 8 | bytes[at + 1] & 0xFF;
+            int from = packed & 63;
+            int to = packed >>> 6 & 63;
+            int move = from < Board.SQUARES && to < Board.SQUARES ? MoveGenerator.find(position, from, to) : Move.NONE;
+            if (move == Move.NONE || ply > 0 && Rules.isWinningMove(Move.to(moves[ply - 1]))) {
+                throw new IOException("game " + number + " has an illegal move at ply " + ply + ": " + from + "-" + to);
+            }
+            position.makeMove(move);
+            moves[ply] = move;
+            if (hashes != null) hashes[ply + 1] = position.hash();
+        }
+        return new GameRecord(layout, Rules.selectionSquare(blueSlot), Rules.selectionSquare(greenSlot), moves, winner);
+    }
+}
@@ -0,0 +1,115 @@
+package src.model.record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.rules.Rules;
+
+/**
+ * GameRecordWriter class appending game records to a stream in the compact binary game format.
+ * A file starts with the four bytes 'J', 'G', 'R' and the format version, followed by the games one after
+ * another, with no index, so games can be streamed in and out without holding a file in memory.
+ * A game of n moves takes 12 + 2n bytes, all numbers big-endian:
+ * <pre>
+ *   2 bytes  the number of moves n
+ *   8 bytes  the 16 piece codes of the selection layout, one per 4 bits, first slot in the high bits
+ *   1 byte   the layout slot the blue team picked in the high 4 bits, the green team's in the low 4 bits
+ *   1 byte   the winner plus one: 0 for no winner, 1 for blue, 2 for green
+ *   2n bytes every move as its source square plus 64 times its destination square
+ * </pre>
+ * The capture and trap bits of a packed move follow from the position, so they are restored by replaying the
+ * game when it is read. Writes are synchronized, so games played on many threads can share one writer.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+    static final byte[] MAGIC = { 'J', 'G', 'R' };
+    static final int VERSION = 1;
+    /** Bytes of a game before its moves. */
+    static final int HEADER_BYTES = 12;
+    /** Largest number of moves in one game. */
+    static final int MAX_PLIES = 0xFFFF;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final OutputStream out;
+    private byte[] buffer = new byte[HEADER_BYTES + 2 * 512];
+    private long games;
+
+    /**
+     * Constructor to create a writer on a stream and write the file header.
+     * @param out The stream receiving the games; it is closed with the writer.
+     * @throws IOException If the header cannot be written.
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, BUFFER_BYTES);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    /**
+     * Creates a new game file, replacing any file of that name.
+     * @param file The path of the file.
+     * @return A writer on the file.
+     * @throws IOException If the file cannot be created.
+     */
+    public static GameRecordWriter create(Path file) throws IOException {
+        return new GameRecordWriter(Files.newOutputStream(file));
+    }
+
+    /**
+     * Appends one game.
+     * @param record The game.
+     * @throws IOException If the game cannot be written.
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        int plies = record.plies();
+        if (plies > MAX_PLIES) {
+            throw new IllegalArgumentException("games are limited to " + MAX_PLIES + " moves: " + plies);
+        }
+        int length = HEADER_BYTES + 2 * plies;
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+
+        buffer[0] = (byte) (plies >>> 8);
+        buffer[1] = (byte) plies;
+        for (int slot = 0; slot < Rules.SELECTION_SLOTS; slot += 2) {
+            buffer[2 + slot / 2] = (byte) (record.layoutCode(slot) << 4 | record.layoutCode(slot + 1));
+        }
+        buffer[10] = (byte) (Rules.selectionSlot(record.selectedSquare(Board.BLUE)) << 4
+            | Rules.selectionSlot(record.selectedSquare(Board.GREEN)));
+        buffer[11] = (byte) (record.winner() + 1);
+        for (int ply = 0, at = HEADER_BYTES; ply < plies; ply++, at += 2) {
+            int move = record.move(ply);
+            int packed = Move.from(move) | Move.to(move) << 6;
+            buffer[at] = (byte) (packed >>> 8);
+            buffer[at + 1] = (byte) packed;
+        }
+        out.write(buffer, 0, length);
+        games++;
+    }
+
+    /**
+     * Returns the number of games written so far.
+     * @return The game count.
+     */
+    public synchronized long games() {
+        return games;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
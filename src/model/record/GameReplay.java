@@ -0,0 +1,124 @@
+package src.model.record;
+
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.rules.GameState;
+
+/**
+ * GameReplay class showing the position of a recorded game at any ply.
+ * A snapshot of the board is kept every KEYFRAME_INTERVAL plies. A seek starts from the closest snapshot at or
+ * before the ply and makes the few moves after it, so any ply of a long game is reached with at most
+ * KEYFRAME_INTERVAL - 1 moves. A seek close to the current ply steps there directly with makeMove or
+ * unmakeMove instead, so scrubbing a move at a time costs one move.
+ * The position returned is owned by the replay: it stays valid until the next seek and must not be changed.
+ */
+public final class GameReplay {
+    /** Number of plies between two board snapshots. */
+    public static final int KEYFRAME_INTERVAL = 16;
+
+    private final GameRecord record;
+    private final int interval;
+    private final Position[] keyframes;
+    private Position cursor;
+    /** The ply of the snapshot the cursor was copied from; it cannot unmake moves before it. */
+    private int cursorBase;
+    private int ply;
+
+    /**
+     * Constructor to create a replay with the default snapshot interval.
+     * @param record The game to replay.
+     * @throws IllegalStateException If a move of the record is not legal.
+     */
+    public GameReplay(GameRecord record) {
+        this(record, KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Constructor to create a replay, playing the game through once to take the snapshots.
+     * @param record The game to replay.
+     * @param interval The number of plies between two snapshots, at least 1.
+     * @throws IllegalStateException If a move of the record is not legal.
+     */
+    public GameReplay(GameRecord record, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1: " + interval);
+        }
+        this.record = record;
+        this.interval = interval;
+        keyframes = new Position[record.plies() / interval + 1];
+
+        GameState state = record.replay(0);
+        for (int ply = 0; ; ply++) {
+            if (ply % interval == 0) {
+                keyframes[ply / interval] = new Position(state.position());
+            }
+            if (ply == record.plies()) break;
+            if (!state.move(record.move(ply))) {
+                throw new IllegalStateException("illegal move at ply " + ply + ": " + Move.toString(record.move(ply)));
+            }
+        }
+        cursor = new Position(keyframes[0]);
+    }
+
+    /**
+     * Returns the game being replayed.
+     * @return The game record.
+     */
+    public GameRecord record() {
+        return record;
+    }
+
+    /**
+     * Returns the number of moves of the game.
+     * @return The last ply a seek may reach.
+     */
+    public int plies() {
+        return record.plies();
+    }
+
+    /**
+     * Returns the ply of the position shown.
+     * @return The number of moves made.
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * Returns the position at the current ply.
+     * @return The position, valid until the next seek.
+     */
+    public Position position() {
+        return cursor;
+    }
+
+    /**
+     * Returns the move that led to the current ply.
+     * @return The packed move, or Move.NONE at the start of the game.
+     */
+    public int lastMove() {
+        return ply == 0 ? Move.NONE : record.move(ply - 1);
+    }
+
+    /**
+     * Moves the replay to a ply.
+     * @param target The ply, clamped to 0 and plies().
+     * @return The position at that ply, valid until the next seek.
+     */
+    public Position seek(int target) {
+        target = Math.max(0, Math.min(record.plies(), target));
+        if (target < cursorBase || Math.abs(target - ply) >= interval) {
+            int keyframe = target / interval;
+            cursor = new Position(keyframes[keyframe]);
+            cursorBase = keyframe * interval;
+            ply = cursorBase;
+        }
+        while (ply < target) {
+            cursor.makeMove(record.move(ply++));
+        }
+        while (ply > target) {
+            cursor.unmakeMove(record.move(--ply));
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,104 @@
+package src.model.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFile class giving read access to a whole file through memory mappings, however large it is.
+ * A single mapping cannot exceed 2 GB, so the file is mapped in segments of SEGMENT bytes. Every segment also
+ * maps the given number of bytes past its end, so a value starting in a segment can always be read from that
+ * segment alone, without checking for a boundary.
+ */
+final class MappedFile implements Closeable {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT = 1L << SEGMENT_BITS;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Constructor to map a file for reading.
+     * @param file The path of the file.
+     * @param overlap The largest number of bytes read at once.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    MappedFile(Path file, int overlap) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT;
+                long length = Math.min(size - start, SEGMENT + overlap);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the length of the file.
+     * @return The size in bytes.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Reads a byte.
+     * @param position The offset in the file.
+     * @return The byte, from 0 to 255.
+     */
+    int getUnsignedByte(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT - 1)) & 0xFF;
+    }
+
+    /**
+     * Reads a big-endian 16-bit number.
+     * @param position The offset in the file.
+     * @return The number, from 0 to 65535.
+     */
+    int getUnsignedShort(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getShort((int) (position & SEGMENT - 1)) & 0xFFFF;
+    }
+
+    /**
+     * Reads a big-endian 32-bit number.
+     * @param position The offset in the file.
+     * @return The number.
+     */
+    int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT - 1));
+    }
+
+    /**
+     * Reads a big-endian 64-bit number.
+     * @param position The offset in the file.
+     * @return The number.
+     */
+    long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT - 1));
+    }
+
+    /**
+     * Copies bytes of the file into an array.
+     * @param position The offset in the file.
+     * @param bytes The array receiving the bytes.
+     * @param length The number of bytes, at most the overlap given to the constructor.
+     */
+    void get(long position, byte[] bytes, int length) {
+        segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT - 1), bytes, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,74 @@
+package src.model.record;
+
+import src.model.board.Board;
+
+/**
+ * PositionStats class counting how the recorded games that reached a position ended.
+ * A game that reached the position more than once is counted once.
+ */
+public final class PositionStats {
+    private final long games;
+    private final long[] wins;
+    private final long occurrences;
+
+    /**
+     * Constructor for the PositionStats class.
+     * @param games The number of games that reached the position.
+     * @param blueWins The number of those games the blue team won.
+     * @param greenWins The number of those games the green team won.
+     * @param occurrences The number of times the position was reached, counting repeats within a game.
+     */
+    public PositionStats(long games, long blueWins, long greenWins, long occurrences) {
+        this.games = games;
+        this.wins = new long[] { blueWins, greenWins };
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Returns the number of games that reached the position.
+     * @return The game count.
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games a team won after reaching the position.
+     * @param side BLUE or GREEN.
+     * @return The win count.
+     */
+    public long wins(int side) {
+        return wins[side];
+    }
+
+    /**
+     * Returns the number of games that reached the position and ended without a winner.
+     * @return The count of unfinished games.
+     */
+    public long unfinished() {
+        return games - wins[Board.BLUE] - wins[Board.GREEN];
+    }
+
+    /**
+     * Returns the number of times the position was reached, counting repeats within a game.
+     * @return The occurrence count.
+     */
+    public long occurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Returns the share of the games a team won after reaching the position.
+     * @param side BLUE or GREEN.
+     * @return The win rate from 0 to 1, or 0 if no game reached the position.
+     */
+    public double winRate(int side) {
+        return games == 0 ? 0 : (double) wins[side] / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games  blue %.1f%%  green %.1f%%  unfinished %d",
+            games, 100 * winRate(Board.BLUE), 100 * winRate(Board.GREEN), unfinished());
+    }
+}
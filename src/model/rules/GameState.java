@@ -0,0 +1,299 @@
+package src.model.rules;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+import src.model.board.PositionSnapshot;
+
+/**
+ * GameState class holding everything about a single game.
+ * A game starts with each team picking one hidden piece from a shuffled layout; the picks decide which
+ * team moves first and the game is then played from the standard layout until a piece enters the opponent's den.
+ * Every instance is independent, so any number of games can run side by side without a display.
+ * The selection layout and every move made are kept, so a finished game can be recorded and replayed.
+ * Moves can be taken back and made again in constant time: a packed move names the piece it captured, and the
+ * position keeps the trap status and hash before every move, so undo is a single unmakeMove. Taken back moves
+ * stay after the current ply until a different move is made.
+ * The position is changed in place by the thread playing the game. After every change an immutable
+ * PositionSnapshot of it is published through a volatile field, so other threads such as searches and the
+ * display read a consistent position from snapshot() without locking the game.
+ */
+public class GameState {
+    private Position position;
+    private volatile PositionSnapshot snapshot;
+    private final int[] layout;
+    private int[] moves = new int[64];
+    private int plies;
+    /** The moves from plies up to this ply were taken back and can be made again. */
+    private int redoPlies;
+    private final int[] selectedSquares = { -1, -1 };
+    private final int[] selectedTypes = { -1, -1 };
+    private boolean isGameStarted;
+    private boolean isGameEnded;
+    private int winner = -1;
+
+    /**
+     * Constructor to create a game waiting for the initial piece selection.
+     * @param random The source of randomness for the shuffled selection layout.
+     */
+    public GameState(Random random) {
+        this(Rules.shuffledCodes(random));
+    }
+
+    /**
+     * Constructor to create a game waiting for the initial piece selection on a given selection layout,
+     * for example to replay a recorded game.
+     * @param layout The piece codes of the selection layout, in the order Rules.selectionLayout places them.
+     */
+    public GameState(int[] layout) {
+        this.layout = layout.clone();
+        position = Rules.selectionLayout(this.layout);
+        publish();
+    }
+
+    /**
+     * Selects one of the hidden pieces to decide the first turn.
+     * Each team may select one of its own pieces once; the game starts when both teams have selected.
+     * @param sq The square of the selected piece.
+     * @return true if the selection was accepted, false otherwise.
+     */
+    public boolean selectInitialPiece(int sq) {
+        if (isGameStarted) return false;
+
+        int code = position.pieceAt(sq);
+        if (code == Board.EMPTY) return false;
+
+        int side = Board.side(code);
+        if (selectedSquares[side] >= 0) return false;
+        selectedSquares[side] = sq;
+        selectedTypes[side] = Board.type(code);
+
+        if (selectedSquares[Board.BLUE] >= 0 && selectedSquares[Board.GREEN] >= 0) {
+            int first = Rules.firstSide(selectedTypes[Board.BLUE], selectedTypes[Board.GREEN]);
+            position = Rules.standardLayout(first);
+            isGameStarted = true;
+            publish();
+        }
+        return true;
+    }
+
+    /**
+     * Makes a packed move if it is legal for the side to move.
+     * Entering the opponent's den ends the game. The moves taken back before it can no longer be redone.
+     * @param move The packed move, as produced by MoveGenerator.
+     * @return true if the move was made, false if it was rejected.
+     */
+    public boolean move(int move) {
+        if (move == Move.NONE || findMove(Move.from(move), Move.to(move)) != move) return false;
+
+        if (plies == moves.length) {
+            moves = Arrays.copyOf(moves, plies * 2);
+        }
+        moves[plies] = move;
+        redoPlies = plies + 1;
+        apply(move);
+        return true;
+    }
+
+    /**
+     * Takes back the last move made.
+     * @return true if a move was taken back, false if no move has been made.
+     */
+    public boolean undo() {
+        if (plies == 0) return false;
+        position.unmakeMove(moves[--plies]);
+        isGameEnded = false;
+        winner = -1;
+        publish();
+        return true;
+    }
+
+    /**
+     * Makes the last move taken back again.
+     * @return true if a move was made again, false if there is no move to redo.
+     */
+    public boolean redo() {
+        if (plies == redoPlies) return false;
+        apply(moves[plies]);
+        return true;
+    }
+
+    /**
+     * Checks if a move can be taken back.
+     * @return true if a move has been made, false otherwise.
+     */
+    public boolean canUndo() {
+        return plies > 0;
+    }
+
+    /**
+     * Checks if a move taken back can be made again.
+     * @return true if there is a move to redo, false otherwise.
+     */
+    public boolean canRedo() {
+        return plies < redoPlies;
+    }
+
+    /**
+     * Makes the move stored at the current ply; entering the opponent's den ends the game.
+     */
+    private void apply(int move) {
+        int side = position.sideToMove();
+        position.makeMove(move);
+        plies++;
+        if (Rules.isWinningMove(Move.to(move))) {
+            isGameEnded = true;
+            winner = side;
+        }
+        publish();
+    }
+
+    /**
+     * Publishes a snapshot of the current position for other threads.
+     */
+    private void publish() {
+        snapshot = new PositionSnapshot(position, plies);
+    }
+
+    /**
+     * Moves the piece on one square to another if the move is legal for the side to move.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return true if the move was made, false if it was rejected.
+     */
+    public boolean move(int from, int to) {
+        return move(findMove(from, to));
+    }
+
+    /**
+     * Writes every legal move of the side to move into a buffer.
+     * @param moves The buffer receiving the packed moves, at least MoveGenerator.MAX_MOVES long.
+     * @return The number of moves written, 0 unless the game is in progress.
+     */
+    public int legalMoves(int[] moves) {
+        if (!isGameStarted || isGameEnded) return 0;
+        return MoveGenerator.generate(position, moves);
+    }
+
+    /**
+     * Writes the legal moves of the piece on one square into a buffer.
+     * @param from The square of the piece.
+     * @param moves The buffer receiving the packed moves, at least 4 long.
+     * @return The number of moves written, 0 unless the game is in progress.
+     */
+    public int legalMoves(int from, int[] moves) {
+        if (!isGameStarted || isGameEnded) return 0;
+        return MoveGenerator.generate(position, from, moves);
+    }
+
+    /**
+     * Finds the packed form of a move if it is legal for the side to move.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return The packed move, or Move.NONE if the move is not legal or the game is not in progress.
+     */
+    public int findMove(int from, int to) {
+        if (!isGameStarted || isGameEnded) return Move.NONE;
+        return MoveGenerator.find(position, from, to);
+    }
+
+    /**
+     * Returns the animal type a team selected during the initial piece selection.
+     * @param side BLUE or GREEN.
+     * @return The animal type, or -1 if the team has not selected yet.
+     */
+    public int selectedType(int side) {
+        return selectedTypes[side];
+    }
+
+    /**
+     * Returns the square of the piece a team selected during the initial piece selection.
+     * @param side BLUE or GREEN.
+     * @return The square in the selection layout, or -1 if the team has not selected yet.
+     */
+    public int selectedSquare(int side) {
+        return selectedSquares[side];
+    }
+
+    /**
+     * Returns the piece codes of the selection layout the game started from.
+     * @return A copy of the codes, in the order Rules.selectionLayout places them.
+     */
+    public int[] layout() {
+        return layout.clone();
+    }
+
+    /**
+     * Returns the number of moves made since the game started.
+     * @return The ply count.
+     */
+    public int plies() {
+        return plies;
+    }
+
+    /**
+     * Returns a move made during the game.
+     * @param ply The number of moves made before it, from 0 to plies() - 1.
+     * @return The packed move.
+     */
+    public int moveAt(int ply) {
+        if (ply < 0 || ply >= plies) {
+            throw new IndexOutOfBoundsException("ply " + ply + " of " + plies);
+        }
+        return moves[ply];
+    }
+
+    /**
+     * Returns the current position. The selection layout is returned until the game starts.
+     * The position is changed in place by the next move, so it may only be read by the thread playing the game;
+     * other threads read snapshot() instead.
+     * @return The current position.
+     */
+    public Position position() {
+        return position;
+    }
+
+    /**
+     * Returns the snapshot of the position published after the last change to the game. It may be read from
+     * any thread and never changes.
+     * @return The current position as an immutable snapshot.
+     */
+    public PositionSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * boolean method to check if the game has started.
+     * @return true if the game has started, false otherwise.
+     */
+    public boolean isGameStarted() {
+        return isGameStarted;
+    }
+
+    /**
+     * Method to check if the game has ended.
+     * @return true if the game has ended, false otherwise.
+     */
+    public boolean isGameEnded() {
+        return isGameEnded;
+    }
+
+    /**
+     * Method to check if it's the blue team's turn.
+     * @return true if it's the blue team's turn, false otherwise.
+     */
+    public boolean isBlueTeamTurn() {
+        return position.sideToMove() == Board.BLUE;
+    }
+
+    /**
+     * Returns the side that won the game.
+     * @return BLUE or GREEN, or -1 while the game is not over.
+     */
+    public int winner() {
+        return winner;
+    }
+}
@@ -0,0 +1,114 @@
+package src.model.rules;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+
+/**
+ * MoveGenerator class writing the legal moves of a position into caller-owned int buffers.
+ * It is the single place that turns a position into packed moves (see Move), used by the user interface
+ * to highlight and validate moves and by automated players. Nothing is allocated while generating.
+ */
+public final class MoveGenerator {
+    /**
+     * Upper bound of legal moves in any position: every piece moves at most once in each of the four directions.
+     */
+    public static final int MAX_MOVES = 8 * 4;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Writes every legal move of the side to move into a buffer.
+     * @param position The position to generate moves for.
+     * @param moves The buffer receiving the packed moves, at least MAX_MOVES long.
+     * @return The number of moves written.
+     */
+    public static int generate(Position position, int[] moves) {
+        int count = 0;
+        long pieces = position.side(position.sideToMove());
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            count = addMoves(position, from, position.targets(from), moves, count);
+        }
+        return count;
+    }
+
+    /**
+     * Writes the legal moves of the piece on one square into a buffer.
+     * Nothing is written if the square is empty or holds a piece of the side not to move.
+     * @param position The position to generate moves for.
+     * @param from The square of the piece.
+     * @param moves The buffer receiving the packed moves, at least 4 long.
+     * @return The number of moves written.
+     */
+    public static int generate(Position position, int from, int[] moves) {
+        int code = position.pieceAt(from);
+        if (code == Board.EMPTY || Board.side(code) != position.sideToMove()) return 0;
+        return addMoves(position, from, position.targets(from), moves, 0);
+    }
+
+    /**
+     * Writes the legal capturing moves of the side to move into a buffer.
+     * @param position The position to generate moves for.
+     * @param moves The buffer receiving the packed moves, at least MAX_MOVES long.
+     * @return The number of moves written.
+     */
+    public static int generateCaptures(Position position, int[] moves) {
+        int count = 0;
+        int side = position.sideToMove();
+        long enemy = position.side(side ^ 1);
+        long pieces = position.side(side);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            count = addMoves(position, from, position.targets(from) & enemy, moves, count);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the packed form of a move if it is legal for the side to move.
+     * @param position The position to check.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return The packed move, or Move.NONE if the move is not legal.
+     */
+    public static int find(Position position, int from, int to) {
+        int code = position.pieceAt(from);
+        if (code == Board.EMPTY || Board.side(code) != position.sideToMove()) return Move.NONE;
+        if ((position.targets(from) & (1L << to)) == 0) return Move.NONE;
+        return encode(position, from, to, Board.side(code));
+    }
+
+    /**
+     * Returns the destination squares of a number of packed moves as a mask.
+     * @param moves The buffer holding the packed moves.
+     * @param count The number of moves in the buffer.
+     * @return The mask of destination squares.
+     */
+    public static long targets(int[] moves, int count) {
+        long targets = 0L;
+        for (int i = 0; i < count; i++) {
+            targets |= 1L << Move.to(moves[i]);
+        }
+        return targets;
+    }
+
+    private static int addMoves(Position position, int from, long targets, int[] moves, int count) {
+        int side = Board.side(position.pieceAt(from));
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[count++] = encode(position, from, to, side);
+        }
+        return count;
+    }
+
+    private static int encode(Position position, int from, int to, int side) {
+        int captured = position.pieceAt(to);
+        boolean entersTrap = (Board.TRAPS[side ^ 1] & (1L << to)) != 0;
+        return Move.encode(from, to, captured == Board.EMPTY ? -1 : Board.type(captured), entersTrap);
+    }
+}
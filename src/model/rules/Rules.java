@@ -0,0 +1,152 @@
+package src.model.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.Position;
+
+/**
+ * Rules class collecting the game rules that do not depend on any particular game instance.
+ * It builds the starting layouts, decides which team moves first and tells when a move wins the game.
+ * It has no user interface dependencies so it can be used by headless games.
+ */
+public final class Rules {
+    /** Number of pieces in the selection layout. */
+    public static final int SELECTION_SLOTS = 2 * Board.TYPES;
+
+    /** Squares of the selection layout: the first squares that are neither lake nor den, row by row. */
+    private static final int[] SELECTION_SQUARES = new int[SELECTION_SLOTS];
+
+    static {
+        int slot = 0;
+        for (int sq = 0; sq < Board.SQUARES && slot < SELECTION_SLOTS; sq++) {
+            if (((Board.LAKE | Board.DEN) & (1L << sq)) == 0) {
+                SELECTION_SQUARES[slot++] = sq;
+            }
+        }
+    }
+
+    private Rules() {
+    }
+
+    /**
+     * Creates the starting layout of the board definition in use, the standard layout unless a variant is loaded.
+     * @param firstSide The side that moves first, BLUE or GREEN.
+     * @return The starting position.
+     */
+    public static Position standardLayout(int firstSide) {
+        Position position = new Position();
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            if (Board.START[sq] != Board.EMPTY) {
+                position.put(sq, Board.START[sq], false);
+            }
+        }
+        position.setSideToMove(firstSide);
+        return position;
+    }
+
+    /**
+     * Creates the shuffled layout the players pick their hidden pieces from.
+     * @param random The source of randomness for the shuffle.
+     * @return The shuffled position, with the blue team to move.
+     */
+    public static Position shuffledLayout(Random random) {
+        return selectionLayout(shuffledCodes(random));
+    }
+
+    /**
+     * Shuffles the pieces of the standard layout.
+     * @param random The source of randomness for the shuffle.
+     * @return The piece codes in the order selectionLayout places them.
+     */
+    public static int[] shuffledCodes(Random random) {
+        Position standard = standardLayout(Board.BLUE);
+        List<Integer> allPieces = new ArrayList<>();
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            if (standard.pieceAt(sq) != Board.EMPTY) {
+                allPieces.add(standard.pieceAt(sq));
+            }
+        }
+
+        Collections.shuffle(allPieces, random);
+        int[] codes = new int[allPieces.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = allPieces.get(i);
+        }
+        return codes;
+    }
+
+    /**
+     * Creates a selection layout from its pieces.
+     * The pieces are placed row by row on every square that is neither lake nor den.
+     * @param codes The piece codes, SELECTION_SLOTS of them, in placement order.
+     * @return The selection position, with the blue team to move.
+     */
+    public static Position selectionLayout(int[] codes) {
+        if (codes.length != SELECTION_SLOTS) {
+            throw new IllegalArgumentException("expected " + SELECTION_SLOTS + " pieces: " + codes.length);
+        }
+        Position position = new Position();
+        for (int slot = 0; slot < SELECTION_SLOTS; slot++) {
+            position.put(SELECTION_SQUARES[slot], codes[slot], false);
+        }
+        return position;
+    }
+
+    /**
+     * Returns the square a slot of the selection layout is placed on.
+     * @param slot The slot, from 0 to SELECTION_SLOTS - 1.
+     * @return The square index.
+     */
+    public static int selectionSquare(int slot) {
+        return SELECTION_SQUARES[slot];
+    }
+
+    /**
+     * Returns the slot of the selection layout placed on a square.
+     * @param sq The square index.
+     * @return The slot, or -1 if no piece of the selection layout stands on the square.
+     */
+    public static int selectionSlot(int sq) {
+        for (int slot = 0; slot < SELECTION_SLOTS; slot++) {
+            if (SELECTION_SQUARES[slot] == sq) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Determines which team moves first from the animals the teams picked.
+     * The blue team goes first only if its animal outranks the green team's animal.
+     * @param blueType The animal type picked by the blue team.
+     * @param greenType The animal type picked by the green team.
+     * @return The side that moves first, BLUE or GREEN.
+     */
+    public static int firstSide(int blueType, int greenType) {
+        return Board.RANK[blueType] > Board.RANK[greenType] ? Board.BLUE : Board.GREEN;
+    }
+
+    /**
+     * Checks if the side to move may move the piece on one square to another.
+     * @param position The position to check.
+     * @param from The square of the piece.
+     * @param to The destination square.
+     * @return true if the move is legal, false otherwise.
+     */
+    public static boolean isLegalMove(Position position, int from, int to) {
+        return MoveGenerator.find(position, from, to) != Move.NONE;
+    }
+
+    /**
+     * Checks if a move to a square wins the game by entering the opponent's den.
+     * Moving into the own den is never legal, so any den reached by a legal move belongs to the opponent.
+     * @param to The destination square.
+     * @return true if the move wins the game, false otherwise.
+     */
+    public static boolean isWinningMove(int to) {
+        return (Board.DEN & (1L << to)) != 0;
+    }
+}
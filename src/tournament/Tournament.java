@@ -0,0 +1,260 @@
+package src.tournament;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.engine.AlphaBetaPlayer;
+import src.model.engine.MctsPlayer;
+import src.model.engine.Player;
+import src.model.engine.PlayerType;
+import src.model.record.GameRecord;
+import src.model.record.GameRecordWriter;
+import src.model.rules.GameState;
+
+/**
+ * Tournament class playing many headless games between two engines at the same time.
+ * Games are played in pairs: both games of a pair start from the same seeded shuffle, with the engines
+ * swapping colors, so neither engine profits from a lucky layout. Each team picks its hidden piece at random
+ * from the shuffle, the same way a player clicking blindly would. A game that reaches the ply limit is a draw.
+ * Every game runs on its own virtual thread when the JVM has them, and on a pool thread otherwise; at most
+ * the given number of games run at once. Finished games can be appended to a game record file as they end.
+ *
+ * Usage: java Main tournament [games=N] [concurrency=M] [seed=S] [maxPlies=P] [first=TYPE:MILLIS[:THREADS[:C]]]
+ * [second=TYPE:MILLIS[:THREADS[:C]]] [record=FILE], where TYPE is a PlayerType name such as alpha_beta or mcts,
+ * C is the exploration constant of mcts and FILE receives every game in the format of GameRecordWriter.
+ */
+public final class Tournament {
+    /** Transposition table size of every engine, kept small since many engines run at once. */
+    private static final int TABLE_MEGABYTES = 4;
+
+    private final Supplier<Player> first;
+    private final Supplier<Player> second;
+    private final long seed;
+    private final int maxPlies;
+    private GameRecordWriter records;
+
+    /**
+     * Constructor to create a tournament between two engines.
+     * @param first Creates the first engine, once per game.
+     * @param second Creates the second engine, once per game.
+     * @param seed The seed of the layout shuffles and hidden piece picks.
+     * @param maxPlies The number of moves after which a game is a draw.
+     */
+    public Tournament(Supplier<Player> first, Supplier<Player> second, long seed, int maxPlies) {
+        this.first = first;
+        this.second = second;
+        this.seed = seed;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Runs a tournament from the command line and prints the result.
+     * @param args key=value options, see the class documentation.
+     */
+    public static void main(String[] args) {
+        int games = 100;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        int maxPlies = 300;
+        String firstSpec = "alpha_beta:100";
+        String secondSpec = "alpha_beta:100";
+        String recordFile = null;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("expected key=value: " + arg);
+            }
+            String value = arg.substring(split + 1);
+            switch (arg.substring(0, split)) {
+                case "games": games = Integer.parseInt(value); break;
+                case "concurrency": concurrency = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "maxPlies": maxPlies = Integer.parseInt(value); break;
+                case "first": firstSpec = value; break;
+                case "second": secondSpec = value; break;
+                case "record": recordFile = value; break;
+                default: throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+
+        System.out.printf("%d games, %d at once, seed %d, draw after %d plies: %s vs %s%n",
+            games, concurrency, seed, maxPlies, firstSpec, secondSpec);
+        Tournament tournament = new Tournament(engine(firstSpec), engine(secondSpec), seed, maxPlies);
+        TournamentResult result;
+        if (recordFile == null) {
+            result = tournament.run(games, concurrency, true);
+            System.out.println(result);
+        } else {
+            try (GameRecordWriter writer = GameRecordWriter.create(Paths.get(recordFile))) {
+                tournament.setRecordWriter(writer);
+                result = tournament.run(games, concurrency, true);
+                System.out.println(result);
+                System.out.println(writer.games() + " games written to " + recordFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (result.failed() > 0) {
+            System.err.println(result.failed() + " games failed, the first with:");
+            result.firstFailure().printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sets where finished games are recorded.
+     * @param writer Receives every game when it ends, or null to record nothing.
+     */
+    public void setRecordWriter(GameRecordWriter writer) {
+        this.records = writer;
+    }
+
+    /**
+     * Parses an engine description of the form TYPE:MILLIS[:THREADS[:C]].
+     * @param spec The engine description, such as alpha_beta:100 or mcts:100:1:0.7.
+     * @return Creates a new engine of that description.
+     */
+    public static Supplier<Player> engine(String spec) {
+        String[] parts = spec.split(":");
+        PlayerType type = PlayerType.valueOf(parts[0].toUpperCase(Locale.ROOT).replace('-', '_'));
+        long millis = parts.length > 1 ? Long.parseLong(parts[1]) : 100;
+        int threads = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+        switch (type) {
+            case ALPHA_BETA: return () -> new AlphaBetaPlayer(millis, threads, TABLE_MEGABYTES);
+            case MCTS: {
+                double exploration = parts.length > 3 ? Double.parseDouble(parts[3]) : MctsPlayer.DEFAULT_EXPLORATION;
+                return () -> new MctsPlayer(millis, threads, exploration);
+            }
+            default: throw new IllegalArgumentException("not an engine: " + spec);
+        }
+    }
+
+    /**
+     * Plays the games of the tournament.
+     * @param games The number of games to play.
+     * @param concurrency The largest number of games played at once.
+     * @param progress true to print a line after every tenth of the games.
+     * @return The result, seen from the first engine, counting the games that failed with an exception apart.
+     */
+    public TournamentResult run(int games, int concurrency, boolean progress) {
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger draws = new AtomicInteger();
+        AtomicInteger losses = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        AtomicLong plies = new AtomicLong();
+        int step = Math.max(1, games / 10);
+        Semaphore running = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        ExecutorService executor = newGameExecutor(concurrency);
+        try {
+            for (int game = 0; game < games; game++) {
+                running.acquireUninterruptibly();
+                int index = game;
+                executor.execute(() -> {
+                    try {
+                        long[] length = new long[1];
+                        int outcome = play(index, length);
+                        (outcome > 0 ? wins : outcome < 0 ? losses : draws).incrementAndGet();
+                        plies.addAndGet(length[0]);
+                        int done = finished.incrementAndGet();
+                        if (progress && done % step == 0) {
+                            System.out.printf("%d/%d games  W/D/L %d/%d/%d%n", done, games, wins.get(), draws.get(), losses.get());
+                        }
+                    } catch (RuntimeException | Error e) {
+                        // A game that cannot be finished must not vanish from the result
+                        failed.incrementAndGet();
+                        firstFailure.compareAndSet(null, e);
+                    } finally {
+                        running.release();
+                    }
+                });
+            }
+            running.acquireUninterruptibly(concurrency);
+        } finally {
+            executor.shutdown();
+        }
+        return new TournamentResult(wins.get(), draws.get(), losses.get(), failed.get(), firstFailure.get(),
+            plies.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Plays one game of the tournament.
+     * @param index The number of the game; games 2k and 2k + 1 share a layout with colors swapped.
+     * @param length Receives the number of moves played.
+     * @return 1 if the first engine won, -1 if it lost, 0 for a draw.
+     */
+    private int play(int index, long[] length) {
+        Random random = new Random(seed * 1_000_003L + index / 2);
+        GameState state = new GameState(random);
+        for (int side = Board.BLUE; side <= Board.GREEN; side++) {
+            long pieces = state.position().side(side);
+            for (int skip = random.nextInt(Long.bitCount(pieces)); skip > 0; skip--) {
+                pieces &= pieces - 1;
+            }
+            state.selectInitialPiece(Long.numberOfTrailingZeros(pieces));
+        }
+
+        int firstSide = index % 2 == 0 ? Board.BLUE : Board.GREEN;
+        Player[] players = new Player[2];
+        players[firstSide] = first.get();
+        players[firstSide ^ 1] = second.get();
+
+        int winner = -1;
+        int ply = 0;
+        while (ply < maxPlies) {
+            int side = state.position().sideToMove();
+            int move = players[side].chooseMove(state.position());
+
+            // A side without a legal move, or one playing an illegal move, loses the game
+            if (move == Move.NONE || !state.move(move)) {
+                winner = side ^ 1;
+                break;
+            }
+            ply++;
+            if (state.isGameEnded()) {
+                winner = state.winner();
+                break;
+            }
+        }
+        length[0] = ply;
+        if (records != null) {
+            try {
+                records.write(GameRecord.of(state).withWinner(winner));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return winner < 0 ? 0 : winner == firstSide ? 1 : -1;
+    }
+
+    /**
+     * Creates an executor running every task on a new virtual thread, falling back to a pool of platform
+     * threads on JVMs without virtual threads.
+     */
+    private static ExecutorService newGameExecutor(int concurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency, task -> {
+                Thread thread = new Thread(task, "tournament-game");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package src.tournament;
+
+/**
+ * TournamentResult class holding the outcome of a tournament between two engines, seen from the first engine.
+ * Games that ended with an exception are counted as failed and left out of the score, the Elo and the rates.
+ * Instances are immutable.
+ */
+public final class TournamentResult {
+    private final int wins;
+    private final int draws;
+    private final int losses;
+    private final int failed;
+    private final Throwable firstFailure;
+    private final long plies;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor to create a tournament result.
+     * @param wins The number of games the first engine won.
+     * @param draws The number of drawn games.
+     * @param losses The number of games the first engine lost.
+     * @param failed The number of games that ended with an exception.
+     * @param firstFailure The exception of the first failed game, or null if none failed.
+     * @param plies The number of moves played in all games.
+     * @param elapsedNanos The wall-clock time of the tournament in nanoseconds.
+     */
+    public TournamentResult(int wins, int draws, int losses, int failed, Throwable firstFailure, long plies,
+            long elapsedNanos) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+        this.failed = failed;
+        this.firstFailure = firstFailure;
+        this.plies = plies;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of games the first engine won.
+     * @return The win count.
+     */
+    public int wins() { return wins; }
+
+    /**
+     * Returns the number of drawn games.
+     * @return The draw count.
+     */
+    public int draws() { return draws; }
+
+    /**
+     * Returns the number of games the first engine lost.
+     * @return The loss count.
+     */
+    public int losses() { return losses; }
+
+    /**
+     * Returns the number of games that ended with an exception instead of a result.
+     * @return The failed game count.
+     */
+    public int failed() { return failed; }
+
+    /**
+     * Returns the exception of the first game that failed.
+     * @return The exception, or null if no game failed.
+     */
+    public Throwable firstFailure() { return firstFailure; }
+
+    /**
+     * Returns the number of games played to a result.
+     * @return The game count.
+     */
+    public int games() { return wins + draws + losses; }
+
+    /**
+     * Returns the average score of the first engine, counting a win as 1 and a draw as 1/2.
+     * @return The score between 0 and 1, or 0.5 if no game was played.
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+    }
+
+    /**
+     * Returns the Elo difference between the engines that matches the score.
+     * @return The Elo difference, positive when the first engine is stronger; infinite after a clean sweep.
+     */
+    public double eloDifference() {
+        return elo(score());
+    }
+
+    /**
+     * Returns the half width of the 95% confidence interval of the Elo difference.
+     * @return The error margin in Elo, infinite if the score is 0 or 1.
+     */
+    public double eloMargin() {
+        int games = games();
+        double score = score();
+        if (games == 0 || score <= 0 || score >= 1) return Double.POSITIVE_INFINITY;
+
+        double variance = (wins * sq(1 - score) + draws * sq(0.5 - score) + losses * sq(score)) / games;
+        double error = 1.96 * Math.sqrt(variance / games);
+        return (elo(Math.min(score + error, 1)) - elo(Math.max(score - error, 0))) / 2;
+    }
+
+    /**
+     * Returns the number of games finished per second of wall-clock time.
+     * @return The game rate.
+     */
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the average length of a game.
+     * @return The average number of moves per game.
+     */
+    public double averagePlies() {
+        return games() == 0 ? 0 : (double) plies / games();
+    }
+
+    private static double elo(double score) {
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format("games %d  W/D/L %d/%d/%d  score %.1f%%  Elo %+.1f +/- %.1f  %.2f games/s  %.1f plies/game",
+            games(), wins, draws, losses, 100 * score(), eloDifference(), eloMargin(), gamesPerSecond(), averagePlies());
+        return failed == 0 ? summary : summary + "  FAILED " + failed;
+    }
+}
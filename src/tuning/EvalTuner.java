@@ -0,0 +1,317 @@
+package src.tuning;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.board.PieceSquareTable;
+import src.model.board.Position;
+import src.model.record.GameRecord;
+import src.model.record.GameRecordReader;
+import src.model.rules.MoveGenerator;
+import src.model.rules.Rules;
+
+/**
+ * EvalTuner class fitting the PieceSquareTable weights to the results of recorded games (Texel's method).
+ * Every quiet position of the games is reduced to the number of times each weight applies to it, blue's count
+ * minus green's, so its evaluation is the dot product of those counts with the weights. The tuner then looks
+ * for the weights whose evaluations, squashed by a logistic curve, best predict the game results: first it
+ * fits the scale of the curve to the current weights, then it follows the gradient of the mean squared error
+ * with Adam steps.
+ * The counts of all positions are kept in one byte array, PARAMS bytes per position, and every pass over them
+ * is split into blocks summed in parallel on the common fork-join pool, so millions of positions take seconds
+ * per pass. The tuned weights are printed as declarations to paste into PieceSquareTable.
+ *
+ * Usage: java Main tune [skip=PLIES] [iterations=N] [rate=R] FILE..., where every FILE is a game record file,
+ * for example written by a tournament with record=FILE, and the first PLIES moves of every game are skipped.
+ */
+public final class EvalTuner {
+    private static final int MATERIAL_AT = 0;
+    private static final int DEN_AT = MATERIAL_AT + Board.TYPES;
+    private static final int TRAP_AT = DEN_AT + PieceSquareTable.DEN_BONUS.length;
+    private static final int LAKE_AT = TRAP_AT + Board.TYPES;
+
+    /** Number of weights tuned. */
+    public static final int PARAMS = LAKE_AT + 1;
+
+    /** Number of positions summed by one parallel task. */
+    private static final int BLOCK = 1 << 14;
+
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    /**
+     * Weight kept at its value. Every piece counts once for its material and once for its den bonus, so adding
+     * the same amount to every material value and taking it from every den bonus would not change any
+     * evaluation; fixing the elephant's value pins that down.
+     */
+    private static final int ANCHOR = MATERIAL_AT + Board.ELEPHANT;
+
+    private byte[] features = new byte[PARAMS * 4096];
+    /** Result of every position for blue, in half points: 0 for a loss, 1 for a draw, 2 for a win. */
+    private byte[] results = new byte[4096];
+    private int positions;
+
+    /**
+     * Tunes the weights over the games of the given files and prints them.
+     * @param args key=value options and the game record files, see the class documentation.
+     */
+    public static void main(String[] args) {
+        int skip = 8;
+        int iterations = 500;
+        double rate = 1.0;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                files.add(arg);
+                continue;
+            }
+            String value = arg.substring(split + 1);
+            switch (arg.substring(0, split)) {
+                case "skip": skip = Integer.parseInt(value); break;
+                case "iterations": iterations = Integer.parseInt(value); break;
+                case "rate": rate = Double.parseDouble(value); break;
+                default: throw new IllegalArgumentException("unknown option: " + arg);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("no game record files given");
+        }
+
+        EvalTuner tuner = new EvalTuner();
+        long start = System.nanoTime();
+        try {
+            for (String file : files) {
+                try (GameRecordReader reader = GameRecordReader.open(Paths.get(file))) {
+                    for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                        tuner.addGame(record, skip);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.printf("%,d quiet positions loaded in %.1f s%n",
+            tuner.positions(), (System.nanoTime() - start) / 1e9);
+
+        double[] weights = currentWeights();
+        start = System.nanoTime();
+        double scale = tuner.fitScale(weights);
+        System.out.printf("scale %.6f, error %.6f%n", scale, tuner.error(weights, scale));
+        tuner.tune(weights, scale, iterations, rate);
+        System.out.printf("tuned in %.1f s, error %.6f%n",
+            (System.nanoTime() - start) / 1e9, tuner.error(weights, scale));
+        System.out.print(declarations(weights));
+    }
+
+    /**
+     * Adds the quiet positions of a game, those where the side to move has no capture and cannot enter a den.
+     * Positions with a capture pending are left out since their static evaluation is about to change.
+     * @param record The game, with its winner; a game without one counts as a draw.
+     * @param skip The number of opening moves whose positions are left out.
+     */
+    public void addGame(GameRecord record, int skip) {
+        int result = record.winner() == Board.BLUE ? 2 : record.winner() == Board.GREEN ? 0 : 1;
+        Position position = record.replay(0).position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < record.plies(); ply++) {
+            if (ply >= skip && isQuiet(position, moves)) {
+                add(position, result);
+            }
+            position.makeMove(record.move(ply));
+        }
+    }
+
+    /**
+     * Returns the number of positions loaded.
+     * @return The position count.
+     */
+    public int positions() {
+        return positions;
+    }
+
+    /**
+     * Finds the scale of the logistic curve that best fits the results with the given weights, by a golden
+     * section search.
+     * @param weights The weights.
+     * @return The scale, per unit of evaluation.
+     */
+    public double fitScale(double[] weights) {
+        double low = 1e-5;
+        double high = 0.1;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        for (int i = 0; i < 50; i++) {
+            double a = high - ratio * (high - low);
+            double b = low + ratio * (high - low);
+            if (error(weights, a) < error(weights, b)) {
+                high = b;
+            } else {
+                low = a;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Returns the mean squared difference between the results and the predicted results.
+     * @param weights The weights.
+     * @param scale The scale of the logistic curve.
+     * @return The error.
+     */
+    public double error(double[] weights, double scale) {
+        return pass(weights, scale, false)[PARAMS] / positions;
+    }
+
+    /**
+     * Improves the weights in place with Adam steps along the gradient of the error.
+     * @param weights The weights to improve.
+     * @param scale The scale of the logistic curve.
+     * @param iterations The number of steps.
+     * @param rate The largest change of a weight in one step.
+     */
+    public void tune(double[] weights, double scale, int iterations, double rate) {
+        double[] mean = new double[PARAMS];
+        double[] variance = new double[PARAMS];
+        for (int t = 1; t <= iterations; t++) {
+            double[] gradient = pass(weights, scale, true);
+            for (int j = 0; j < PARAMS; j++) {
+                if (j == ANCHOR) continue;
+                double g = gradient[j] / positions;
+                mean[j] = BETA1 * mean[j] + (1 - BETA1) * g;
+                variance[j] = BETA2 * variance[j] + (1 - BETA2) * g * g;
+                double m = mean[j] / (1 - Math.pow(BETA1, t));
+                double v = variance[j] / (1 - Math.pow(BETA2, t));
+                weights[j] -= rate * m / (Math.sqrt(v) + EPSILON);
+            }
+            if (t % 100 == 0) {
+                System.out.printf("iteration %d, error %.6f%n", t, gradient[PARAMS] / positions);
+            }
+        }
+    }
+
+    /**
+     * Sums the squared error, and optionally its gradient, over every position in parallel blocks.
+     * @return The gradient of the summed error in the first PARAMS entries, and the summed error in the last.
+     */
+    private double[] pass(double[] weights, double scale, boolean gradient) {
+        int blocks = (positions + BLOCK - 1) / BLOCK;
+        return IntStream.range(0, blocks).parallel()
+            .mapToObj(block -> passBlock(weights, scale, gradient,
+                block * BLOCK, Math.min(positions, (block + 1) * BLOCK)))
+            .reduce(new double[PARAMS + 1], EvalTuner::sum);
+    }
+
+    private double[] passBlock(double[] weights, double scale, boolean gradient, int from, int to) {
+        double[] sums = new double[PARAMS + 1];
+        for (int i = from; i < to; i++) {
+            int base = i * PARAMS;
+            double evaluation = 0;
+            for (int j = 0; j < PARAMS; j++) {
+                evaluation += weights[j] * features[base + j];
+            }
+            double predicted = 1 / (1 + Math.exp(-scale * evaluation));
+            double difference = predicted - results[i] * 0.5;
+            sums[PARAMS] += difference * difference;
+            if (gradient) {
+                double slope = 2 * difference * predicted * (1 - predicted) * scale;
+                for (int j = 0; j < PARAMS; j++) {
+                    sums[j] += slope * features[base + j];
+                }
+            }
+        }
+        return sums;
+    }
+
+    private static double[] sum(double[] a, double[] b) {
+        double[] sum = new double[a.length];
+        for (int j = 0; j < sum.length; j++) {
+            sum[j] = a[j] + b[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Stores the weight counts of a position, blue's minus green's.
+     */
+    private void add(Position position, int result) {
+        if (positions == results.length) {
+            results = Arrays.copyOf(results, positions * 2);
+            features = Arrays.copyOf(features, positions * 2 * PARAMS);
+        }
+        int base = positions * PARAMS;
+        long pieces = position.side(Board.BLUE) | position.side(Board.GREEN);
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int code = position.pieceAt(sq);
+            int side = Board.side(code);
+            int type = Board.type(code);
+            int sign = side == Board.BLUE ? 1 : -1;
+            long bit = 1L << sq;
+            features[base + MATERIAL_AT + type] += sign;
+            features[base + DEN_AT + PieceSquareTable.denIndex(side, sq)] += sign;
+            if ((Board.TRAPS[side ^ 1] & bit) != 0) {
+                features[base + TRAP_AT + type] -= sign;
+            }
+            if (type == Board.RAT && (Board.LAKE & bit) != 0) {
+                features[base + LAKE_AT] += sign;
+            }
+        }
+        results[positions++] = (byte) result;
+    }
+
+    private static boolean isQuiet(Position position, int[] moves) {
+        int count = MoveGenerator.generate(position, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.isCapture(moves[i]) || Rules.isWinningMove(Move.to(moves[i]))) return false;
+        }
+        return count > 0;
+    }
+
+    /**
+     * Returns the weights of PieceSquareTable in the order the tuner uses.
+     * @return A new array of PARAMS weights.
+     */
+    public static double[] currentWeights() {
+        double[] weights = new double[PARAMS];
+        for (int type = 0; type < Board.TYPES; type++) {
+            weights[MATERIAL_AT + type] = PieceSquareTable.MATERIAL[type];
+            weights[TRAP_AT + type] = PieceSquareTable.TRAP_PENALTY[type];
+        }
+        for (int i = 0; i < PieceSquareTable.DEN_BONUS.length; i++) {
+            weights[DEN_AT + i] = PieceSquareTable.DEN_BONUS[i];
+        }
+        weights[LAKE_AT] = PieceSquareTable.RAT_IN_LAKE;
+        return weights;
+    }
+
+    /**
+     * Formats weights as the declarations of PieceSquareTable.
+     * @param weights The weights in the order the tuner uses.
+     * @return The declarations, one per line.
+     */
+    public static String declarations(double[] weights) {
+        return "public static final int[] MATERIAL = " + array(weights, MATERIAL_AT, Board.TYPES) + ";\n"
+            + "public static final int[] DEN_BONUS = "
+            + array(weights, DEN_AT, PieceSquareTable.DEN_BONUS.length) + ";\n"
+            + "public static final int[] TRAP_PENALTY = " + array(weights, TRAP_AT, Board.TYPES) + ";\n"
+            + "public static final int RAT_IN_LAKE = " + Math.round(weights[LAKE_AT]) + ";\n";
+    }
+
+    private static String array(double[] weights, int from, int length) {
+        StringBuilder text = new StringBuilder("{ ");
+        for (int i = 0; i < length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(Math.round(weights[from + i]));
+        }
+        return text.append(" }").toString();
+    }
+}
@@ -0,0 +1,230 @@
+package src.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+import src.model.board.Board;
+import src.model.board.Position;
+import src.model.board.PositionSnapshot;
+
+/**
+ * BoardComponent class drawing the whole board in one component.
+ * Every tile is drawn as its terrain sprite with the piece sprite on top, both taken from a SpriteCache at the
+ * device pixel size of the tiles, so they are copied without scaling. The component remembers what every tile shows and only asks Swing to repaint the tiles
+ * that change; a repaint only draws the tiles inside the clip. Mouse presses are mapped back to a (row, col) tile.
+ * The board keeps its aspect ratio and is centered in the component.
+ */
+public class BoardComponent extends JComponent {
+    /** Code of a face-down piece, after the 16 piece codes. */
+    public static final int HIDDEN = SpriteAtlas.HIDDEN;
+
+    /** Set the system property jungle.renderStats to print the render counters every 100 frames. */
+    private static final boolean PRINT_RENDER_STATS = Boolean.getBoolean("jungle.renderStats");
+    private static final int DEFAULT_TILE_SIZE = 100;
+
+    /** Sprites shared by every board, so a restarted window starts with the sizes already rendered. */
+    private static final SpriteCache SPRITES = new SpriteCache();
+
+    /**
+     * TileClickListener interface receiving the tile under a mouse press.
+     */
+    public interface TileClickListener {
+        /**
+         * Called when a tile is pressed with the left mouse button.
+         * @param row The row of the tile.
+         * @param col The column of the tile.
+         */
+        void tileClicked(int row, int col);
+    }
+
+    private final int[] terrains;
+    /** What every tile shows: a piece code, HIDDEN or Board.EMPTY, indexed by square. */
+    private final int[] shownPieces = new int[Board.SQUARES];
+    private final RenderStats renderStats = new RenderStats();
+    private int selected = -1;
+    private long targets;
+
+    /**
+     * Constructor to create a board component.
+     * @param terrains The terrain of every square, SpriteAtlas.LAND, LAKE, TRAP or DEN.
+     * @param listener Receives the tile of every left mouse press.
+     */
+    public BoardComponent(int[] terrains, TileClickListener listener) {
+        this.terrains = terrains.clone();
+        Arrays.fill(shownPieces, Board.EMPTY);
+        setPreferredSize(new Dimension(Board.COLS * DEFAULT_TILE_SIZE, Board.ROWS * DEFAULT_TILE_SIZE));
+        setOpaque(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                int size = tileSize();
+                int col = Math.floorDiv(e.getX() - originX(size), size);
+                int row = Math.floorDiv(e.getY() - originY(size), size);
+                if (Board.onBoard(row, col)) {
+                    listener.tileClicked(row, col);
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows the pieces of a position, repainting only the tiles whose piece changed.
+     * @param position The position to show.
+     * @param faceDown true to show every piece face down.
+     */
+    public void showPosition(Position position, boolean faceDown) {
+        showPieces(position::pieceAt, faceDown);
+    }
+
+    /**
+     * Shows the pieces of a published game position, repainting only the tiles whose piece changed.
+     * @param snapshot The position to show.
+     * @param faceDown true to show every piece face down.
+     */
+    public void showPosition(PositionSnapshot snapshot, boolean faceDown) {
+        showPieces(snapshot::pieceAt, faceDown);
+    }
+
+    private void showPieces(IntUnaryOperator pieceAt, boolean faceDown) {
+        for (int sq = 0; sq < Board.SQUARES; sq++) {
+            int code = pieceAt.applyAsInt(sq);
+            int shown = faceDown && code != Board.EMPTY ? HIDDEN : code;
+            if (shown != shownPieces[sq]) {
+                shownPieces[sq] = shown;
+                repaintTile(sq);
+            }
+        }
+    }
+
+    /**
+     * Marks a tile as the selected piece.
+     * @param sq The square of the tile.
+     */
+    public void setSelected(int sq) {
+        if (selected >= 0) repaintTile(selected);
+        selected = sq;
+        repaintTile(sq);
+    }
+
+    /**
+     * Marks tiles as targets of the selected piece.
+     * @param mask The mask of target squares, added to the current targets.
+     */
+    public void addTargets(long mask) {
+        targets |= mask;
+        repaintTiles(mask);
+    }
+
+    /**
+     * Removes the selection and every target mark.
+     */
+    public void clearHighlights() {
+        if (selected >= 0) repaintTile(selected);
+        repaintTiles(targets);
+        selected = -1;
+        targets = 0;
+    }
+
+    /**
+     * Returns the counters of the paints made so far.
+     * @return The render counters.
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        long start = System.nanoTime();
+        Graphics2D g = (Graphics2D) graphics;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int size = tileSize();
+        int x0 = originX(size);
+        int y0 = originY(size);
+        int pixels = Math.max(1, (int) Math.round(size * g.getTransform().getScaleX()));
+        // Until this size is rendered the closest cached size is stretched, with the fastest interpolation
+        SpriteCache.Sheet sheet = SPRITES.sheet(pixels, getGraphicsConfiguration(), this);
+        int firstCol = Math.max(0, Math.floorDiv(clip.x - x0, size));
+        int lastCol = Math.min(Board.COLS - 1, Math.floorDiv(clip.x + clip.width - 1 - x0, size));
+        int firstRow = Math.max(0, Math.floorDiv(clip.y - y0, size));
+        int lastRow = Math.min(Board.ROWS - 1, Math.floorDiv(clip.y + clip.height - 1 - y0, size));
+
+        int painted = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int sq = Board.square(row, col);
+                int x = x0 + col * size;
+                int y = y0 + row * size;
+                g.drawImage(sheet.terrain(terrains[sq]), x, y, size, size, null);
+                if (shownPieces[sq] != Board.EMPTY) {
+                    g.drawImage(sheet.piece(shownPieces[sq]), x, y, size, size, null);
+                }
+                if (sq == selected) {
+                    drawHighlight(g, x, y, size, Color.GREEN, 3);
+                } else if ((targets & 1L << sq) != 0) {
+                    drawHighlight(g, x, y, size, Color.YELLOW, 2);
+                }
+                painted++;
+            }
+        }
+
+        renderStats.record(System.nanoTime() - start, painted);
+        if (PRINT_RENDER_STATS && renderStats.frames() % 100 == 0) {
+            System.out.println("render: " + renderStats);
+        }
+    }
+
+    /**
+     * Draws a white line around a tile with a colored frame inside it, like the old tile borders.
+     */
+    private static void drawHighlight(Graphics2D g, int x, int y, int size, Color color, int width) {
+        g.setColor(Color.WHITE);
+        g.drawRect(x, y, size - 1, size - 1);
+        g.setColor(color);
+        for (int i = 1; i <= width; i++) {
+            g.drawRect(x + i, y + i, size - 1 - 2 * i, size - 1 - 2 * i);
+        }
+    }
+
+    private void repaintTile(int sq) {
+        int size = tileSize();
+        repaint(originX(size) + Board.col(sq) * size, originY(size) + Board.row(sq) * size, size, size);
+    }
+
+    private void repaintTiles(long mask) {
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            repaintTile(sq);
+        }
+    }
+
+    private int tileSize() {
+        return Math.max(1, Math.min(getWidth() / Board.COLS, getHeight() / Board.ROWS));
+    }
+
+    private int originX(int size) {
+        return (getWidth() - size * Board.COLS) / 2;
+    }
+
+    private int originY(int size) {
+        return (getHeight() - size * Board.ROWS) / 2;
+    }
+}
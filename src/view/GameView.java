@@ -7,21 +7,42 @@ import java.awt.*;
 import javax.swing.*;
 
 import java.awt.event.ActionEvent;
-
-import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 
 import src.controller.GameController;
 import src.model.GameModel;
-import src.model.pieces.*;
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.engine.Player;
+import src.model.engine.PlayerType;
+import src.model.engine.SearchResult;
+import src.model.record.GameRecord;
+import src.model.record.GameRecordReader;
+import src.model.record.GameReplay;
 
 
 /**
  * The GameView class represents the graphical user interface of the Jungle King Game.
  * It initializes the game board, handles UI interactions, and manages visual updates.
+ * A recorded game can be opened in replay mode, which shows its positions on the board instead of the
+ * game being played until the replay is closed.
  */
 public class GameView extends JFrame {
+    /** Number of moves of the expected line shown while the computer player thinks. */
+    private static final int ENGINE_LINE_MOVES = 6;
+
     private final GameController gameController;
 
+    private BoardComponent board;
+    private JLabel turnLabel;
+    private JLabel engineLabel;
+    private JButton restartBtn;
+    private ReplayPanel replayPanel;
+    private String liveTurnText;
+
     /**
      * Constructs the GameView and initializes all GUI components.
      *
@@ -33,55 +54,63 @@ public class GameView extends JFrame {
         setSize(900, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
-        setResizable(false);
+        setResizable(true);
 
          // Initialize top panel with labels and buttons
         JPanel topPanel = new JPanel();
-        GameModel.turnLabel = new JLabel("Waiting for initial piece selection...");
-        GameModel.turnLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        topPanel.add(GameModel.turnLabel);
+        turnLabel = new JLabel("Waiting for initial piece selection...");
+        turnLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        topPanel.add(turnLabel);
+
+        engineLabel = new JLabel();
+        engineLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        topPanel.add(engineLabel);
 
         
-        GameModel.restartBtn = new JButton("Restart");
-        GameModel.restartBtn.setFont(new Font("Arial", Font.BOLD, 16));
-        topPanel.add(GameModel.restartBtn);
+        restartBtn = new JButton("Restart");
+        restartBtn.setFont(new Font("Arial", Font.BOLD, 16));
+        topPanel.add(restartBtn);
 
-        GameModel.restartBtn.addActionListener(new ActionListener() {
+        restartBtn.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
+                gameController.shutdownEngine();
                 GameModel.Restart(GameView.this);
             }
         });
 
-        add(topPanel, BorderLayout.NORTH);
-       
-        // Initialize board panel
-        JPanel boardPanel = new JPanel(new GridLayout(GameModel.ROWS, GameModel.COLS));
-        add(boardPanel, BorderLayout.CENTER);
+        topPanel.add(createHistoryButton("Undo", gameController::undo));
+        topPanel.add(createHistoryButton("Redo", gameController::redo));
 
-        // Load board images
-        String basePath = "/Assets/Board/";
-        System.out.println("Base path: " + basePath); // Debugging output
-        
-        GameModel.landIcon = scaleImage(basePath + "land.png", 100, 100);
-        GameModel.lakeIcon = scaleImage(basePath + "lake.png", 100, 100);
-        GameModel.trapIcon = scaleImage(basePath + "trap.png", 100, 100);
-        GameModel.denIcon = scaleImage(basePath + "den.png", 100, 100);
-        GameModel.hiddenIcon = scaleImage(basePath + "hidden.png", 100, 100);
+        JButton replayBtn = new JButton("Replay");
+        replayBtn.setFont(new Font("Arial", Font.BOLD, 16));
+        replayBtn.addActionListener(e -> openReplay());
+        topPanel.add(replayBtn);
 
-        
-        // Initialize game grid and pieces
-        GameModel.grid = new JButton[GameModel.ROWS][GameModel.COLS];
-        GameModel.pieces = new Piece[GameModel.ROWS][GameModel.COLS];
-        initializeBoard(boardPanel);
-        initializePieces();
-        gameController.addPieceSelectionListeners();
+        topPanel.add(createPlayerSelector("Blue:", Board.BLUE));
+        topPanel.add(createPlayerSelector("Green:", Board.GREEN));
+
+        add(topPanel, BorderLayout.NORTH);
+       
+        // Initialize game board and pieces; the images come from the shared SpriteAtlas
+        initializeBoard();
+        updateBoardDisplayWithHiddenPieces();
 
          // Keyboard event handling
         setFocusTraversalKeysEnabled(false);
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                gameController.handleKeyPress(e);
+                if (replayPanel == null) {
+                    gameController.handleKeyPress(e);
+                } else if (e.getKeyCode() == KeyEvent.VK_LEFT) {
+                    replayPanel.step(-1);
+                } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
+                    replayPanel.step(1);
+                } else if (e.getKeyCode() == KeyEvent.VK_HOME) {
+                    replayPanel.seek(0);
+                } else if (e.getKeyCode() == KeyEvent.VK_END) {
+                    replayPanel.seek(Integer.MAX_VALUE);
+                }
             }
         });
         setFocusable(true);
@@ -89,226 +118,173 @@ public class GameView extends JFrame {
     }
 
     /**
-     * Initializes the game pieces and assigns them to the board.
-     * Pieces are shuffled before being placed.
+     * Creates a button taking moves back or making them again, ignored while a replay is shown.
+     *
+     * @param text The text of the button.
+     * @param action The controller action of the button.
+     * @return The button.
      */
-    private void initializePieces() {
-        
-        GameModel.pieces = new Piece[GameModel.ROWS][GameModel.COLS];
-        GameModel.originalPieces = new Piece[GameModel.ROWS][GameModel.COLS];
-
-        // Initializing predefined pieces
-
-        GameModel.originalPieces[0][0] = new Lion(true);
-        GameModel.originalPieces[0][2] = new Elephant(true);
-        GameModel.originalPieces[1][1] = new Cat(true);
-        GameModel.originalPieces[2][2] = new Wolf(true);
-        GameModel.originalPieces[4][2] = new Leopard(true);
-        GameModel.originalPieces[5][1] = new Dog(true);
-        GameModel.originalPieces[6][0] = new Tiger(true);
-        GameModel.originalPieces[6][2] = new Rat(true);
-        
-        
-        GameModel.originalPieces[0][8] = new Tiger(false);
-        GameModel.originalPieces[1][7] = new Dog(false);
-        GameModel.originalPieces[2][6] = new Leopard(false);
-        GameModel.originalPieces[0][6] = new Rat(false);
-        GameModel.originalPieces[6][6] = new Elephant(false);
-        GameModel.originalPieces[6][8] = new Lion(false);
-        GameModel.originalPieces[5][7] = new Cat(false);
-        GameModel.originalPieces[4][6] = new Wolf(false);
-
-        // Shuffle and assign pieces randomly
-        java.util.List<Piece> allPieces = new java.util.ArrayList<>();
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                if (GameModel.originalPieces[row][col] != null) {
-                    allPieces.add(GameModel.originalPieces[row][col]);
-                }
-            }
-        }
-
-        
-        java.util.Collections.shuffle(allPieces);
-        int pieceIndex = 0;
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                if (!isLake(row, col) && !isDen(row, col) && pieceIndex < allPieces.size()) {
-                    GameModel.pieces[row][col] = allPieces.get(pieceIndex++);
-                }
+    private JButton createHistoryButton(String text, Runnable action) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Arial", Font.BOLD, 16));
+        button.addActionListener(e -> {
+            if (replayPanel == null) {
+                action.run();
             }
-        }
-
-        updateBoardDisplayWithHiddenPieces();
+            requestFocus();
+        });
+        return button;
     }
 
-     /**
-     * Initializes the game board with buttons representing each tile.
+    /**
+     * Creates a labelled drop-down choosing who plays a side.
+     * Every engine is created the first time it is chosen and kept for the side, so switching back and forth
+     * does not allocate a new transposition table each time.
      *
-     * @param boardPanel The panel where the board is displayed.
+     * @param text The label shown before the drop-down.
+     * @param side The side the drop-down controls.
+     * @return The panel holding the label and the drop-down.
      */
-    private void initializeBoard(JPanel boardPanel) {
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                GameModel.grid[row][col] = new JButton();
-                GameModel.grid[row][col].setIcon(getTileIcon(row, col));
-                GameModel.grid[row][col].setBorderPainted(true); 
-                GameModel.grid[row][col].setFocusPainted(false);
-                GameModel.grid[row][col].setContentAreaFilled(false);
-                boardPanel.add(GameModel.grid[row][col]);
-            }
-        }
+    private JPanel createPlayerSelector(String text, int side) {
+        JPanel panel = new JPanel();
+        JComboBox<PlayerType> selector = new JComboBox<>(PlayerType.values());
+        Map<PlayerType, Player> created = new EnumMap<>(PlayerType.class);
+        selector.addActionListener(e -> {
+            PlayerType type = (PlayerType) selector.getSelectedItem();
+            Player player = type == PlayerType.HUMAN ? null : created.computeIfAbsent(type, t -> t.create(
+                GameController.THINK_MILLIS, GameController.SEARCH_THREADS, GameController.TABLE_MEGABYTES));
+            gameController.setPlayer(side, player);
+            requestFocus();
+        });
+        panel.add(new JLabel(text));
+        panel.add(selector);
+        return panel;
     }
 
     /**
-     * Updates the board display, initially hiding all pieces.
+     * Initializes the board component drawing every tile from the terrain table of the board,
+     * and sends its clicks to the controller.
      */
-    private void updateBoardDisplayWithHiddenPieces() {
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                ImageIcon baseIcon = getTileIcon(row, col);
-                if (GameModel.pieces[row][col] != null) {
-                    GameModel.grid[row][col].setIcon(overlayIcons(baseIcon, GameModel.hiddenIcon));
-                } else {
-                    GameModel.grid[row][col].setIcon(baseIcon);
-                }
+    private void initializeBoard() {
+        board = new BoardComponent(Board.TERRAIN, (row, col) -> {
+            if (replayPanel == null) {
+                gameController.handleTileClick(row, col);
             }
-        }
+        });
+        add(board, BorderLayout.CENTER);
     }
 
     /**
-     * Overlays two icons to create a combined image.
-     *
-     * @param backgroundIcon The background icon.
-     * @param foregroundIcon The foreground icon to overlay.
-     * @return A new ImageIcon that combines the two images.
+     * Updates the board display, initially hiding all pieces.
      */
-    public ImageIcon overlayIcons(ImageIcon backgroundIcon, ImageIcon foregroundIcon) {
-        Image background = backgroundIcon.getImage();
-        Image foreground = foregroundIcon.getImage();
-        
-        BufferedImage combined = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = combined.createGraphics();
-        
-        g.drawImage(background, 0, 0, 100, 100, null);
-        g.drawImage(foreground, 0, 0, 100, 100, null);
-        g.dispose();
-        
-        return new ImageIcon(combined);
+    private void updateBoardDisplayWithHiddenPieces() {
+        board.showPosition(gameController.getGameState().snapshot(), true);
     }
 
     /**
-     * Returns the icon for a specific tile based on its type.
-     *
-     * @param row The row of the tile.
-     * @param col The column of the tile.
-     * @return The ImageIcon representing the tile type.
+     * Asks for a game record file and a game in it, and shows that game in replay mode.
      */
-    public ImageIcon getTileIcon(int row, int col) {
-        if (isLake(row, col)) return GameModel.lakeIcon;
-        if (isTrap(row, col)) return GameModel.trapIcon;
-        if (isDen(row, col)) return GameModel.denIcon;
-        return GameModel.landIcon;
-    }
+    private void openReplay() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            requestFocus();
+            return;
+        }
+        String number = JOptionPane.showInputDialog(this, "Game number in the file:", "1");
+        if (number == null) {
+            requestFocus();
+            return;
+        }
 
-    /**
-     * Checks if the tile at the specified coordinates is a lake.
-     * @param row
-     * @param col
-     * @return true if the tile is a lake, false otherwise.
-     */
-    private boolean isLake(int row, int col) {
-        return gameController.isLake(row, col);
+        try {
+            GameRecord record = readGame(chooser.getSelectedFile(), Integer.parseInt(number.trim()));
+            if (record == null) {
+                showMessage("The file has no game " + number.trim() + ".");
+            } else {
+                showReplay(new GameReplay(record));
+            }
+        } catch (IOException | RuntimeException e) {
+            showMessage("Cannot replay the game: " + e.getMessage());
+        }
+        requestFocus();
     }
 
     /**
-     * Checks if the tile at the specified coordinates is a trap.
-     * @param row
-     * @param col
-     * @return true if the tile is a trap, false otherwise.
+     * Reads one game of a game record file.
+     *
+     * @param file The game record file.
+     * @param number The number of the game, from 1.
+     * @return The game, or null if the file has fewer games.
+     * @throws IOException If the file cannot be read.
      */
-    private boolean isTrap(int row, int col) {
-        return gameController.isTrap(row, col);
+    private static GameRecord readGame(File file, int number) throws IOException {
+        try (GameRecordReader reader = GameRecordReader.open(file.toPath())) {
+            GameRecord record = null;
+            for (int i = 0; i < number; i++) {
+                record = reader.next();
+                if (record == null) break;
+            }
+            return record;
+        }
     }
 
     /**
-     * Checks if the tile at the specified coordinates is a den.
-     * @param row
-     * @param col
-     * @return true if the tile is a den, false otherwise.
+     * Shows a replay on the board, replacing any replay already shown.
+     * Clicks and movement keys are ignored while a replay is shown; the arrow keys step through the game.
+     *
+     * @param replay The game to replay.
      */
-    private boolean isDen(int row, int col) {
-        return gameController.isDen(row, col);
+    public void showReplay(GameReplay replay) {
+        if (replayPanel == null) {
+            liveTurnText = turnLabel.getText();
+        } else {
+            remove(replayPanel);
+        }
+        gameController.selectedRow = -1;
+        gameController.selectedCol = -1;
+        replayPanel = new ReplayPanel(replay, board, this::closeReplay);
+        add(replayPanel, BorderLayout.SOUTH);
+        turnLabel.setText(replayPanel.describeGame());
+        revalidate();
+        repaint();
     }
 
     /**
-     * Scales an image to the specified width and height.
-     *
-     * @param resourcePath The path to the image resource.
-     * @param width        The desired width of the scaled image.
-     * @param height       The desired height of the scaled image.
-     * @return A scaled ImageIcon, or a fallback icon if loading fails.
+     * Leaves replay mode and shows the game being played again.
      */
-    private ImageIcon scaleImage(String resourcePath, int width, int height) {
-            
-        try {
-            System.out.println("Attempting to load resource: " + resourcePath); // Debugging output
-            java.net.URL resourceUrl = getClass().getResource(resourcePath);
-    
-            if (resourceUrl == null) {
-                System.err.println("Resource not found: " + resourcePath);
-                return createFallbackIcon(width, height);
-            }
-    
-            ImageIcon icon = new ImageIcon(resourceUrl);
-    
-            if (icon.getImageLoadStatus() != MediaTracker.COMPLETE) {
-                System.err.println("Failed to load resource: " + resourcePath);
-                return createFallbackIcon(width, height);
-            }
-    
-            Image img = icon.getImage();
-            Image scaledImg = img.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-            return new ImageIcon(scaledImg);
-        } catch (Exception e) {
-            System.err.println("Error loading resource " + resourcePath + ": " + e.getMessage());
-            return createFallbackIcon(width, height);
+    public void closeReplay() {
+        if (replayPanel == null) return;
+        remove(replayPanel);
+        replayPanel = null;
+        board.clearHighlights();
+        turnLabel.setText(liveTurnText);
+        if (gameController.getGameState().isGameStarted()) {
+            updateBoardDisplay();
+        } else {
+            updateBoardDisplayWithHiddenPieces();
         }
-        
+        revalidate();
+        repaint();
+        requestFocus();
     }
 
     /**
-     * Creates a fallback icon in case the image loading fails.
+     * Returns the counters of the board paints made so far.
      *
-     * @param width  The width of the fallback icon.
-     * @param height The height of the fallback icon.
-     * @return A fallback ImageIcon.
+     * @return The render counters.
      */
-    private ImageIcon createFallbackIcon(int width, int height) {
-        BufferedImage fallback = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = fallback.createGraphics();
-        g.setColor(Color.GRAY);
-        g.fillRect(0, 0, width, height);
-        g.setColor(Color.BLACK);
-        g.drawRect(0, 0, width-1, height-1);
-        g.dispose();
-        return new ImageIcon(fallback);
+    public RenderStats getRenderStats() {
+        return board.getRenderStats();
     }
 
     /**
      * Clears the current selection of a piece.
      */
     public void clearSelection() {
-        gameController.selectedPiece = null;
         gameController.selectedRow = -1;
         gameController.selectedCol = -1;
-        
-        
-        for (int r = 0; r < GameModel.ROWS; r++) {
-            for (int c = 0; c < GameModel.COLS; c++) {
-                GameModel.grid[r][c].setBorder(null);
-            }
-        }
+
+        board.clearHighlights();
         requestFocus(); 
     }
 
@@ -316,16 +292,8 @@ public class GameView extends JFrame {
      * Updates the display of the game board with the current pieces.
      */
     public void updateBoardDisplay() {
-        for (int row = 0; row < GameModel.ROWS; row++) {
-            for (int col = 0; col < GameModel.COLS; col++) {
-                ImageIcon baseIcon = getTileIcon(row, col);
-                if (GameModel.pieces[row][col] != null) {
-                    GameModel.grid[row][col].setIcon(overlayIcons(baseIcon, GameModel.pieces[row][col].getIcon()));
-                } else {
-                    GameModel.grid[row][col].setIcon(baseIcon);
-                }
-            }
-        }
+        if (replayPanel != null) return;
+        board.showPosition(gameController.getGameState().snapshot(), false);
     }
 /**
      * Highlights the selected piece.
@@ -334,11 +302,58 @@ public class GameView extends JFrame {
      * @param col The column of the selected piece.
      */
     public void highlightSelectedPiece(int row, int col) {
-        
-        GameModel.grid[row][col].setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createLineBorder(Color.WHITE, 1),
-            BorderFactory.createLineBorder(Color.GREEN, 3)
-        ));
+        board.setSelected(Board.square(row, col));
+    }
+
+    /**
+     * Highlights the tiles the selected piece may move to.
+     *
+     * @param targets The mask of target squares.
+     */
+    public void highlightValidMoves(long targets) {
+        board.addTargets(targets);
+    }
+
+    /**
+     * Sets the text of the turn label.
+     *
+     * @param text The text to show.
+     */
+    public void setTurnText(String text) {
+        if (replayPanel != null) {
+            liveTurnText = text;
+            return;
+        }
+        turnLabel.setText(text);
+    }
+
+    /**
+     * Shows the progress of the computer player thinking: the depth, the score for the side to move and the
+     * first moves of the expected line.
+     *
+     * @param result The last completed search iteration, or null to clear the progress.
+     */
+    public void showEngineProgress(SearchResult result) {
+        if (result == null) {
+            engineLabel.setText("");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Thinking: depth ").append(result.depth())
+            .append(" score ").append(result.score());
+        int[] line = result.principalVariation();
+        for (int i = 0; i < Math.min(line.length, ENGINE_LINE_MOVES); i++) {
+            text.append(i == 0 ? "  " : " ").append(Move.toString(line[i]));
+        }
+        engineLabel.setText(text.toString());
+    }
+
+    /**
+     * Shows a message dialog on top of the game window.
+     *
+     * @param message The message to show.
+     */
+    public void showMessage(String message) {
+        JOptionPane.showMessageDialog(this, message);
     }
 
 }
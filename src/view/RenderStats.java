@@ -0,0 +1,71 @@
+package src.view;
+
+/**
+ * RenderStats class counting the board redraws of a view and the time spent in them.
+ * A frame is one update of the board; it records how many tiles it had to touch and how long it took.
+ * The counters are only used on the Swing thread.
+ */
+public final class RenderStats {
+    private long frames;
+    private long tiles;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Records one frame.
+     * @param nanos The time the frame took in nanoseconds.
+     * @param touched The number of tiles the frame updated.
+     */
+    public void record(long nanos, int touched) {
+        frames++;
+        tiles += touched;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset() {
+        frames = 0;
+        tiles = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * Returns the number of frames recorded.
+     * @return The frame count.
+     */
+    public long frames() { return frames; }
+
+    /**
+     * Returns the average number of tiles updated per frame.
+     * @return The average tile count.
+     */
+    public double tilesPerFrame() {
+        return frames == 0 ? 0 : (double) tiles / frames;
+    }
+
+    /**
+     * Returns the average time of a frame.
+     * @return The average time in microseconds.
+     */
+    public double averageMicros() {
+        return frames == 0 ? 0 : totalNanos / 1e3 / frames;
+    }
+
+    /**
+     * Returns the time of the slowest frame.
+     * @return The longest time in microseconds.
+     */
+    public double maxMicros() {
+        return maxNanos / 1e3;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("frames %d  tiles/frame %.1f  avg %.1f us  max %.1f us",
+            frames, tilesPerFrame(), averageMicros(), maxMicros());
+    }
+}
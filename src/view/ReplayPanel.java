@@ -0,0 +1,101 @@
+package src.view;
+
+import java.awt.BorderLayout;
+import java.awt.Font;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+
+import src.model.board.Board;
+import src.model.board.Move;
+import src.model.record.GameRecord;
+import src.model.record.GameReplay;
+
+/**
+ * ReplayPanel class with the controls of a recorded game shown on a board: a slider over every ply, buttons
+ * stepping one move or jumping to either end, and a label naming the move shown.
+ * Every change of ply seeks the GameReplay and hands its position straight to the BoardComponent, which only
+ * repaints the tiles that differ, so dragging the slider across a long game stays smooth.
+ */
+public class ReplayPanel extends JPanel {
+    private final GameReplay replay;
+    private final BoardComponent board;
+    private final JSlider slider;
+    private final JLabel moveLabel;
+
+    /**
+     * Constructor to create the controls of a replay.
+     * @param replay The game to replay.
+     * @param board The board showing the replayed positions.
+     * @param onClose Called when the Close button is pressed.
+     */
+    public ReplayPanel(GameReplay replay, BoardComponent board, Runnable onClose) {
+        super(new BorderLayout());
+        this.replay = replay;
+        this.board = board;
+
+        slider = new JSlider(0, replay.plies(), 0);
+        slider.setFocusable(false);
+        slider.addChangeListener(e -> show(slider.getValue()));
+
+        JPanel buttons = new JPanel();
+        buttons.add(createButton("|<", () -> seek(0)));
+        buttons.add(createButton("<", () -> step(-1)));
+        buttons.add(createButton(">", () -> step(1)));
+        buttons.add(createButton(">|", () -> seek(replay.plies())));
+        moveLabel = new JLabel();
+        moveLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        buttons.add(moveLabel);
+        buttons.add(createButton("Close", onClose));
+
+        add(slider, BorderLayout.NORTH);
+        add(buttons, BorderLayout.CENTER);
+        show(0);
+    }
+
+    /**
+     * Shows the position after a number of moves.
+     * @param ply The ply, clamped to the length of the game.
+     */
+    public void seek(int ply) {
+        slider.setValue(Math.max(0, Math.min(replay.plies(), ply)));
+    }
+
+    /**
+     * Shows the position a number of moves before or after the one shown.
+     * @param plies The number of moves to go forward, negative to go back.
+     */
+    public void step(int plies) {
+        seek(replay.ply() + plies);
+    }
+
+    /**
+     * Returns a one-line description of the game, for the window's turn label.
+     * @return The result and the length of the game.
+     */
+    public String describeGame() {
+        GameRecord record = replay.record();
+        String result = record.winner() == Board.BLUE ? "Blue won"
+            : record.winner() == Board.GREEN ? "Green won" : "No winner";
+        return "Replay: " + result + " in " + record.plies() + " moves";
+    }
+
+    private void show(int ply) {
+        board.showPosition(replay.seek(ply), false);
+        board.clearHighlights();
+        int move = replay.lastMove();
+        if (move != Move.NONE) {
+            board.addTargets(1L << Move.from(move) | 1L << Move.to(move));
+        }
+        String toMove = replay.position().sideToMove() == Board.BLUE ? "Blue" : "Green";
+        moveLabel.setText("Ply " + ply + " / " + replay.plies() + "  " + Move.toString(move) + "  " + toMove + " to move");
+    }
+
+    private static JButton createButton(String text, Runnable action) {
+        JButton button = new JButton(text);
+        button.setFocusable(false);
+        button.addActionListener(e -> action.run());
+        return button;
+    }
+}
@@ -0,0 +1,157 @@
+package src.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+
+import src.model.board.Board;
+import src.model.board.BoardDefinition;
+
+/**
+ * SpriteAtlas class holding the one shared copy of every board image: the 16 pieces, the face-down piece and
+ * the four terrains. Pieces are identified by their Board piece code, so no Piece object or ImageIcon is needed
+ * to draw them. Every image is decoded and scaled to SIZE once, on first use, and shared by every window of the
+ * process, so a restart loads nothing. SIZE is large enough for big tiles on HiDPI screens; the sprites of the
+ * size actually shown are scaled from these by SpriteCache. preloadInBackground decodes them all in parallel
+ * while the window is being built.
+ */
+public final class SpriteAtlas {
+    public static final int LAND = BoardDefinition.LAND;
+    public static final int LAKE = BoardDefinition.LAKE;
+    public static final int TRAP = BoardDefinition.TRAP;
+    public static final int DEN = BoardDefinition.DEN;
+    public static final int TERRAINS = 4;
+    /** Code of the face-down piece, after the 16 piece codes. */
+    public static final int HIDDEN = 2 * Board.TYPES;
+    /** Width and height of every sprite in pixels. */
+    public static final int SIZE = 320;
+
+    private static final String[] TERRAIN_PATHS = {
+        "/Assets/Board/land.png", "/Assets/Board/lake.png", "/Assets/Board/trap.png", "/Assets/Board/den.png"
+    };
+    private static final String HIDDEN_PATH = "/Assets/Board/hidden.png";
+
+    /** Sprites by index: the piece codes, then HIDDEN, then the terrains. */
+    private static final int COUNT = HIDDEN + 1 + TERRAINS;
+    private static final AtomicReferenceArray<BufferedImage> SPRITES = new AtomicReferenceArray<>(COUNT);
+    private static final Object[] LOCKS = new Object[COUNT];
+
+    static {
+        for (int i = 0; i < COUNT; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Returns the sprite of a piece.
+     * @param code The piece code, or HIDDEN for the face-down piece.
+     * @return The shared image, SIZE pixels wide and high.
+     */
+    public static BufferedImage piece(int code) {
+        return sprite(code);
+    }
+
+    /**
+     * Returns the sprite of a terrain.
+     * @param terrain LAND, LAKE, TRAP or DEN.
+     * @return The shared image, SIZE pixels wide and high.
+     */
+    public static BufferedImage terrain(int terrain) {
+        return sprite(HIDDEN + 1 + terrain);
+    }
+
+    /**
+     * Loads every sprite on the common fork-join pool, so the window finds them ready.
+     * @return A future completing when all sprites are loaded.
+     */
+    public static CompletableFuture<Void> preloadInBackground() {
+        return CompletableFuture.runAsync(() -> IntStream.range(0, COUNT).parallel().forEach(SpriteAtlas::sprite));
+    }
+
+    private static BufferedImage sprite(int index) {
+        BufferedImage sprite = SPRITES.get(index);
+        if (sprite != null) return sprite;
+
+        synchronized (LOCKS[index]) {
+            sprite = SPRITES.get(index);
+            if (sprite == null) {
+                sprite = load(path(index));
+                SPRITES.set(index, sprite);
+            }
+            return sprite;
+        }
+    }
+
+    private static String path(int index) {
+        if (index < HIDDEN) return Board.newPiece(index).getImagePath();
+        if (index == HIDDEN) return HIDDEN_PATH;
+        return TERRAIN_PATHS[index - HIDDEN - 1];
+    }
+
+    /**
+     * Decodes a classpath image and scales it to SIZE, or draws a gray tile if it cannot be read.
+     */
+    private static BufferedImage load(String resourcePath) {
+        try {
+            URL url = SpriteAtlas.class.getResource(resourcePath);
+            BufferedImage image = url == null ? null : ImageIO.read(url);
+            if (image != null) {
+                return scale(image, SIZE);
+            }
+            System.err.println("Resource not found: " + resourcePath);
+        } catch (IOException e) {
+            System.err.println("Error loading resource " + resourcePath + ": " + e.getMessage());
+        }
+        return fallback(SIZE);
+    }
+
+    /**
+     * Scales an image to a square, halving it step by step first when it is much larger so that downscaling
+     * stays sharp.
+     * @param image The image to scale.
+     * @param size The width and height of the result.
+     * @return A new ARGB image.
+     */
+    static BufferedImage scale(Image image, int size) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        while (width / 2 >= size && height / 2 >= size) {
+            width /= 2;
+            height /= 2;
+            image = draw(image, width, height);
+        }
+        return draw(image, size, size);
+    }
+
+    private static BufferedImage draw(Image image, int width, int height) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return result;
+    }
+
+    private static BufferedImage fallback(int size) {
+        BufferedImage fallback = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = fallback.createGraphics();
+        g.setColor(Color.GRAY);
+        g.fillRect(0, 0, size, size);
+        g.setColor(Color.BLACK);
+        g.drawRect(0, 0, size - 1, size - 1);
+        g.dispose();
+        return fallback;
+    }
+}
@@ -0,0 +1,153 @@
+package src.view;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+/**
+ * SpriteCache class holding the board sprites rendered for the tile sizes shown recently.
+ * Sprites are rendered at the exact device pixel size they are drawn at, so a tile size on a HiDPI screen gets
+ * its own sharp sprites instead of a stretched copy, and a tile is drawn with two unscaled copies: the terrain,
+ * then the piece. Sprites are rendered from the SpriteAtlas into images compatible with the screen, once per
+ * size, and the last few sizes are kept in least recently used order. Only the very first size is rendered on
+ * the calling thread; later sizes are rendered on a background thread while the closest cached size is
+ * stretched into place, so resizing the window never waits for a render. Apart from the render itself
+ * everything runs on the Swing thread.
+ */
+final class SpriteCache {
+    /** Number of tile sizes kept. */
+    private static final int CAPACITY = 4;
+
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "sprite-renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Integer, Sheet> sheets = new LinkedHashMap<Integer, Sheet>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Sheet> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private final Set<Integer> pending = new HashSet<>();
+    /** The size asked for last; a background render of any other size is skipped as out of date. */
+    private volatile int wanted;
+
+    /**
+     * Sheet class holding the sprite of every terrain and piece at one pixel size.
+     */
+    static final class Sheet {
+        private final int pixels;
+        private final BufferedImage[] terrains;
+        private final BufferedImage[] pieces;
+
+        private Sheet(int pixels, BufferedImage[] terrains, BufferedImage[] pieces) {
+            this.pixels = pixels;
+            this.terrains = terrains;
+            this.pieces = pieces;
+        }
+
+        /**
+         * Returns the width and height of the sprites.
+         * @return The size in device pixels.
+         */
+        int pixels() {
+            return pixels;
+        }
+
+        /**
+         * Returns the sprite of a terrain.
+         * @param terrain SpriteAtlas.LAND, LAKE, TRAP or DEN.
+         * @return The sprite.
+         */
+        BufferedImage terrain(int terrain) {
+            return terrains[terrain];
+        }
+
+        /**
+         * Returns the sprite of a piece.
+         * @param piece A piece code or SpriteAtlas.HIDDEN.
+         * @return The sprite.
+         */
+        BufferedImage piece(int piece) {
+            return pieces[piece];
+        }
+    }
+
+    /**
+     * Returns the sprites of a pixel size, or the closest size available while that size is being rendered.
+     * @param pixels The tile size in device pixels.
+     * @param configuration The screen the sprites are drawn on, or null if unknown.
+     * @param requester The component repainted when the sprites of the size are ready.
+     * @return The sprites of the size, or of the closest cached size.
+     */
+    Sheet sheet(int pixels, GraphicsConfiguration configuration, Component requester) {
+        wanted = pixels;
+        Sheet sheet = sheets.get(pixels);
+        if (sheet != null) return sheet;
+
+        if (sheets.isEmpty()) {
+            sheet = render(pixels, configuration);
+            sheets.put(pixels, sheet);
+            return sheet;
+        }
+
+        if (pending.add(pixels)) {
+            RENDERER.execute(() -> {
+                Sheet rendered = wanted == pixels ? render(pixels, configuration) : null;
+                SwingUtilities.invokeLater(() -> {
+                    pending.remove(pixels);
+                    if (rendered != null) {
+                        sheets.put(pixels, rendered);
+                        requester.repaint();
+                    }
+                });
+            });
+        }
+
+        Sheet closest = null;
+        for (Sheet cached : sheets.values()) {
+            if (closest == null || Math.abs(cached.pixels - pixels) < Math.abs(closest.pixels - pixels)) {
+                closest = cached;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Renders every terrain and piece at a pixel size.
+     */
+    private static Sheet render(int pixels, GraphicsConfiguration configuration) {
+        BufferedImage[] terrains = new BufferedImage[SpriteAtlas.TERRAINS];
+        for (int terrain = 0; terrain < terrains.length; terrain++) {
+            terrains[terrain] = compatible(SpriteAtlas.scale(SpriteAtlas.terrain(terrain), pixels), configuration);
+        }
+        BufferedImage[] pieces = new BufferedImage[SpriteAtlas.HIDDEN + 1];
+        for (int piece = 0; piece < pieces.length; piece++) {
+            pieces[piece] = compatible(SpriteAtlas.scale(SpriteAtlas.piece(piece), pixels), configuration);
+        }
+        return new Sheet(pixels, terrains, pieces);
+    }
+
+    /**
+     * Copies an image into the pixel format of a screen, so drawing it there needs no conversion.
+     */
+    private static BufferedImage compatible(BufferedImage image, GraphicsConfiguration configuration) {
+        if (configuration == null) return image;
+        BufferedImage copy = configuration.createCompatibleImage(image.getWidth(), image.getHeight(), Transparency.TRANSLUCENT);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+}